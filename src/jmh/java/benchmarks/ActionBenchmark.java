@@ -0,0 +1,104 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ActionBenchmark {
+    private static final String[] DEFAULT_NAMES = {"Свободно", "Сон", "Работа", "Тренировка", "Учёба"};
+
+    @Param({"5", "500"})
+    public int actionCount;
+
+    private Workspace workspace;
+    private String[] names;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workspace = new Workspace();
+        names = new String[actionCount];
+        for (int i = 0; i < actionCount; i++) {
+            if (i < DEFAULT_NAMES.length) {
+                names[i] = DEFAULT_NAMES[i];
+            } else {
+                names[i] = "Действие " + i;
+                App.createCustomAction(names[i]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        workspace.close();
+    }
+
+    @Benchmark
+    public Object findExisting() {
+        return App.findActionName(names[step++ % names.length]);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Object createAndSave(Catalog catalog) throws Throwable {
+        return catalog.createAndSave("Новое действие " + catalog.created++);
+    }
+
+    @Benchmark
+    public Object findMissing() {
+        return App.findActionName("Неизвестное действие");
+    }
+
+    @State(Scope.Thread)
+    public static class Catalog {
+        private URLClassLoader loader;
+        private MethodHandle create;
+        private MethodHandle save;
+        private int created;
+
+        @Setup(Level.Iteration)
+        public void fork(ActionBenchmark benchmark) throws Throwable {
+            close();
+            System.setProperty("tracker.dir", benchmark.workspace.newDirectory().toString());
+            URL[] classPath = {App.ACTION.getProtectionDomain().getCodeSource().getLocation()};
+            loader = new URLClassLoader(classPath, ClassLoader.getPlatformClassLoader());
+            Class<?> action = Class.forName("Action", true, loader);
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            create = lookup.findStatic(action, "createCustomAction", MethodType.methodType(action, String.class))
+                    .asType(MethodType.methodType(Object.class, String.class));
+            save = lookup.findStatic(action, "saveCustomActions", MethodType.methodType(void.class));
+
+            for (int i = DEFAULT_NAMES.length; i < benchmark.actionCount; i++) {
+                create.invokeExact(benchmark.names[i]);
+            }
+            save.invokeExact();
+            created = 0;
+        }
+
+        @TearDown(Level.Iteration)
+        public void close() throws IOException {
+            if (loader != null) {
+                loader.close();
+                loader = null;
+            }
+        }
+
+        Object createAndSave(String name) throws Throwable {
+            Object action = create.invokeExact(name);
+            save.invokeExact();
+            return action;
+        }
+    }
+}
@@ -0,0 +1,78 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisBenchmark {
+    private static final String[] DEFAULT_ACTIONS = {"NULL", "SLEEP", "WORK", "TRAINING", "LEARNING"};
+    private static final int DAYS = 30;
+
+    @Param({"5", "500"})
+    public int actionCount;
+
+    private Workspace workspace;
+    private Object tracker;
+    private Object lastAction;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workspace = new Workspace();
+        tracker = App.newTracker();
+
+        Object[] actions = new Object[actionCount];
+        for (int i = 0; i < actionCount; i++) {
+            actions[i] = i < DEFAULT_ACTIONS.length
+                    ? App.getAction(DEFAULT_ACTIONS[i])
+                    : App.createCustomAction("Действие " + i);
+        }
+        lastAction = actions[actionCount - 1];
+
+        int slots = App.getSlotCount(tracker);
+        to = LocalDate.now();
+        from = to.minusDays(DAYS - 1);
+        for (int day = 0; day < DAYS; day++) {
+            App.selectDate(tracker, from.plusDays(day));
+            for (int slot = 0; slot < slots; slot++) {
+                App.setMapAction(tracker, slot, actions[(day * slots + slot) % actionCount]);
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        App.close(tracker);
+        workspace.close();
+    }
+
+    @Benchmark
+    public void analiseDay() {
+        App.showAnalise(tracker);
+    }
+
+    @Benchmark
+    public void analiseMonth() {
+        App.showAnalise(tracker, from, to);
+    }
+
+    @Benchmark
+    public Object analyzeMonth() {
+        return App.analyze(tracker, from, to);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int intervalCount() {
+        return App.getIntervalCount(tracker, lastAction);
+    }
+}
@@ -0,0 +1,217 @@
+package benchmarks;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.time.LocalDate;
+
+final class App {
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.publicLookup();
+
+    static final Class<?> TRACKER = type("TrackerTime");
+    static final Class<?> ACTION = type("Action");
+    static final Class<?> ANALYTICS = type("HistoryAnalytics");
+
+    private static final MethodHandle NEW_TRACKER = constructor(TRACKER);
+    private static final MethodHandle CLOSE = method(TRACKER, "close", void.class);
+    private static final MethodHandle SLOT_COUNT = method(TRACKER, "getSlotCount", int.class);
+    private static final MethodHandle SELECT_DATE = method(TRACKER, "selectDate", void.class, LocalDate.class);
+    private static final MethodHandle SET_SLOT = method(TRACKER, "setMapAction", void.class, int.class, ACTION);
+    private static final MethodHandle SET_RANGE = method(TRACKER, "setMapAction", void.class, ACTION, int.class, int.class);
+    private static final MethodHandle SHOW_ANALISE = method(TRACKER, "showAnalise", void.class);
+    private static final MethodHandle SHOW_ANALISE_RANGE = method(TRACKER, "showAnalise", void.class, LocalDate.class, LocalDate.class);
+    private static final MethodHandle ANALYZE = method(TRACKER, "analyze", ANALYTICS, LocalDate.class, LocalDate.class);
+    private static final MethodHandle INTERVAL_COUNT = method(TRACKER, "getIntervalCount", int.class, ACTION);
+    private static final MethodHandle TOTAL_MINUTES = method(TRACKER, "getTotalMinutes", long.class, ACTION, LocalDate.class, LocalDate.class);
+    private static final MethodHandle SAVE_TRACKER = method(TRACKER, "saveTracker", void.class);
+    private static final MethodHandle LOAD_TRACKER = method(TRACKER, "loadTracker", void.class);
+    private static final MethodHandle GET_ACTION = staticMethod(ACTION, "getAction", ACTION, String.class);
+    private static final MethodHandle FIND_ACTION_NAME = staticMethod(ACTION, "findActionName", ACTION, String.class);
+    private static final MethodHandle CREATE_CUSTOM_ACTION = staticMethod(ACTION, "createCustomAction", ACTION, String.class);
+    private static final MethodHandle SAVE_CUSTOM_ACTIONS = staticMethod(ACTION, "saveCustomActions", void.class);
+
+    private App() {
+    }
+
+    static Object newTracker() {
+        try {
+            return NEW_TRACKER.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void close(Object tracker) {
+        try {
+            CLOSE.invokeExact(tracker);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getSlotCount(Object tracker) {
+        try {
+            return (int) SLOT_COUNT.invokeExact(tracker);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void selectDate(Object tracker, LocalDate date) {
+        try {
+            SELECT_DATE.invokeExact(tracker, (Object) date);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void setMapAction(Object tracker, int slot, Object action) {
+        try {
+            SET_SLOT.invokeExact(tracker, slot, action);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void setMapAction(Object tracker, Object action, int from, int to) {
+        try {
+            SET_RANGE.invokeExact(tracker, action, from, to);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void showAnalise(Object tracker) {
+        try {
+            SHOW_ANALISE.invokeExact(tracker);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void showAnalise(Object tracker, LocalDate from, LocalDate to) {
+        try {
+            SHOW_ANALISE_RANGE.invokeExact(tracker, (Object) from, (Object) to);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object analyze(Object tracker, LocalDate from, LocalDate to) {
+        try {
+            return ANALYZE.invokeExact(tracker, (Object) from, (Object) to);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static int getIntervalCount(Object tracker, Object action) {
+        try {
+            return (int) INTERVAL_COUNT.invokeExact(tracker, action);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static long getTotalMinutes(Object tracker, Object action, LocalDate from, LocalDate to) {
+        try {
+            return (long) TOTAL_MINUTES.invokeExact(tracker, action, (Object) from, (Object) to);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void saveTracker(Object tracker) {
+        try {
+            SAVE_TRACKER.invokeExact(tracker);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void loadTracker(Object tracker) {
+        try {
+            LOAD_TRACKER.invokeExact(tracker);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object getAction(String id) {
+        try {
+            return GET_ACTION.invokeExact((Object) id);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object findActionName(String displayName) {
+        try {
+            return FIND_ACTION_NAME.invokeExact((Object) displayName);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static Object createCustomAction(String displayName) {
+        try {
+            return CREATE_CUSTOM_ACTION.invokeExact((Object) displayName);
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    static void saveCustomActions() {
+        try {
+            SAVE_CUSTOM_ACTIONS.invokeExact();
+        } catch (Throwable e) {
+            throw rethrow(e);
+        }
+    }
+
+    private static Class<?> type(String name) {
+        try {
+            return Class.forName(name, false, App.class.getClassLoader());
+        } catch (ClassNotFoundException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle constructor(Class<?> owner) {
+        try {
+            return erase(LOOKUP.findConstructor(owner, MethodType.methodType(void.class)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle method(Class<?> owner, String name, Class<?> result, Class<?>... parameters) {
+        try {
+            return erase(LOOKUP.findVirtual(owner, name, MethodType.methodType(result, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle staticMethod(Class<?> owner, String name, Class<?> result, Class<?>... parameters) {
+        try {
+            return erase(LOOKUP.findStatic(owner, name, MethodType.methodType(result, parameters)));
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    private static MethodHandle erase(MethodHandle handle) {
+        return handle.asType(handle.type().erase());
+    }
+
+    private static RuntimeException rethrow(Throwable e) {
+        if (e instanceof RuntimeException runtime) {
+            throw runtime;
+        }
+        if (e instanceof Error error) {
+            throw error;
+        }
+        throw new IllegalStateException(e);
+    }
+}
@@ -0,0 +1,158 @@
+package benchmarks;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Locale;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+
+public final class HttpLoadTest {
+    private static final int DEFAULT_CLIENTS = 2000;
+    private static final int DEFAULT_REQUESTS_PER_CLIENT = 25;
+    private static final int USERS = 100;
+    private static final String[] ACTIONS = {"SLEEP", "WORK", "TRAINING", "LEARNING"};
+    private static final String RESULT_FILE = "http-load-result.json";
+
+    private HttpLoadTest() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int clients = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_CLIENTS;
+        int requestsPerClient = args.length > 1 ? Integer.parseInt(args[1]) : DEFAULT_REQUESTS_PER_CLIENT;
+
+        Result result;
+        if (args.length > 2) {
+            result = run(URI.create(args[2]), clients, requestsPerClient);
+        } else {
+            try (Workspace workspace = new Workspace();
+                 EmbeddedServer server = new EmbeddedServer(workspace.newDirectory())) {
+                result = run(URI.create("http://127.0.0.1:" + server.port + "/api/"), clients, requestsPerClient);
+            }
+        }
+
+        String json = result.toJson(clients, requestsPerClient);
+        System.out.println(json);
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(Path.of(RESULT_FILE)))) {
+            writer.println(json);
+        }
+    }
+
+    private static Result run(URI base, int clients, int requestsPerClient) throws InterruptedException {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(30))
+                .build();
+        int total = clients * requestsPerClient;
+        long[] latencies = new long[total];
+        AtomicInteger errors = new AtomicInteger();
+        Semaphore inFlight = new Semaphore(clients);
+        CountDownLatch done = new CountDownLatch(total);
+        String date = LocalDate.now().toString();
+
+        long started = System.nanoTime();
+        for (int i = 0; i < total; i++) {
+            inFlight.acquire();
+            int request = i;
+            long sent = System.nanoTime();
+            client.sendAsync(request(base, date, request), HttpResponse.BodyHandlers.discarding())
+                    .whenComplete((response, failure) -> {
+                        latencies[request] = System.nanoTime() - sent;
+                        if (failure != null || response.statusCode() >= 300) {
+                            errors.incrementAndGet();
+                        }
+                        inFlight.release();
+                        done.countDown();
+                    });
+        }
+        done.await();
+        return new Result(latencies, System.nanoTime() - started, errors.get());
+    }
+
+    private static HttpRequest request(URI base, String date, int request) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        String user = "user" + random.nextInt(USERS);
+        int kind = request % 10;
+
+        if (kind < 5) {
+            int from = random.nextInt(48);
+            String body = "{\"from\":" + from + ",\"to\":" + (from + random.nextInt(48 - from))
+                    + ",\"action\":\"" + ACTIONS[random.nextInt(ACTIONS.length)] + "\"}";
+            return HttpRequest.newBuilder(base.resolve("users/" + user + "/days/" + date + "/slots"))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofString(body))
+                    .build();
+        }
+        if (kind < 9) {
+            return HttpRequest.newBuilder(base.resolve("users/" + user + "/days/" + date)).GET().build();
+        }
+        return HttpRequest.newBuilder(base.resolve("users/" + user + "/statistics?from=" + date)).GET().build();
+    }
+
+    private static final class EmbeddedServer implements Closeable {
+        private final Object service;
+        private final Object server;
+        private final int port;
+
+        EmbeddedServer(Path users) throws ReflectiveOperationException {
+            Class<?> settingsType = Class.forName("AppSettings");
+            Class<?> serviceType = Class.forName("TrackerService");
+            Class<?> serverType = Class.forName("TrackerHttpServer");
+
+            service = serviceType.getConstructor(Path.class, settingsType)
+                    .newInstance(users, settingsType.getConstructor().newInstance());
+            server = serverType.getConstructor(serviceType, int.class).newInstance(service, 0);
+            serverType.getMethod("start").invoke(server);
+            port = (int) serverType.getMethod("getPort").invoke(server);
+        }
+
+        @Override
+        public void close() throws IOException {
+            try {
+                server.getClass().getMethod("close").invoke(server);
+                service.getClass().getMethod("close").invoke(service);
+            } catch (ReflectiveOperationException e) {
+                throw new IOException(e);
+            }
+        }
+    }
+
+    private static final class Result {
+        private final long[] latencies;
+        private final long elapsedNanos;
+        private final int errors;
+
+        Result(long[] latencies, long elapsedNanos, int errors) {
+            this.latencies = latencies;
+            this.elapsedNanos = elapsedNanos;
+            this.errors = errors;
+            Arrays.sort(latencies);
+        }
+
+        private double percentileMillis(double percentile) {
+            int index = (int) Math.min(latencies.length - 1, Math.ceil(percentile * latencies.length) - 1);
+            return latencies[Math.max(0, index)] / 1_000_000.0;
+        }
+
+        String toJson(int clients, int requestsPerClient) {
+            double seconds = elapsedNanos / 1_000_000_000.0;
+            return String.format(Locale.ROOT,
+                    "{\"clients\":%d,\"requestsPerClient\":%d,\"requests\":%d,\"errors\":%d,"
+                            + "\"seconds\":%.3f,\"throughput\":%.1f,"
+                            + "\"latencyMillis\":{\"p50\":%.3f,\"p90\":%.3f,\"p99\":%.3f,\"max\":%.3f}}",
+                    clients, requestsPerClient, latencies.length, errors, seconds, latencies.length / seconds,
+                    percentileMillis(0.50), percentileMillis(0.90), percentileMillis(0.99), percentileMillis(1.0));
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PersistenceBenchmark {
+    @Param({"1", "3650"})
+    public int days;
+
+    private Workspace workspace;
+    private Object tracker;
+    private Object work;
+    private LocalDate from;
+    private LocalDate to;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workspace = new Workspace();
+        tracker = App.newTracker();
+        work = App.getAction("WORK");
+        Object sleep = App.getAction("SLEEP");
+        Object learning = App.getAction("LEARNING");
+        Object training = App.getAction("TRAINING");
+
+        int slots = App.getSlotCount(tracker);
+        int morning = slots * 7 / 24;
+        int evening = slots * 18 / 24;
+        to = LocalDate.now();
+        from = to.minusDays(days - 1);
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            App.selectDate(tracker, date);
+            App.setMapAction(tracker, sleep, slots - 2, morning - 1);
+            App.setMapAction(tracker, work, morning + 2, evening - 1);
+            App.setMapAction(tracker, learning, evening, evening + 3);
+            App.setMapAction(tracker, training, evening + 4, evening + 5);
+        }
+        App.saveTracker(tracker);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        App.close(tracker);
+        workspace.close();
+    }
+
+    @Benchmark
+    public void saveTracker() {
+        App.saveTracker(tracker);
+    }
+
+    @Benchmark
+    public void loadTracker() {
+        App.loadTracker(tracker);
+    }
+
+    @Benchmark
+    public void analiseAll() {
+        App.showAnalise(tracker, from, to);
+    }
+
+    @Benchmark
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public long totalMinutes() {
+        return App.getTotalMinutes(tracker, work, from, to);
+    }
+}
@@ -0,0 +1,60 @@
+package benchmarks;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class SetMapActionBenchmark {
+    private static final int RANGE_LENGTH = 8;
+
+    private Workspace workspace;
+    private Object tracker;
+    private Object[] actions;
+    private int slots;
+    private int step;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        workspace = new Workspace();
+        tracker = App.newTracker();
+        slots = App.getSlotCount(tracker);
+        actions = new Object[] {App.getAction("SLEEP"), App.getAction("WORK"), App.getAction("LEARNING")};
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        App.close(tracker);
+        workspace.close();
+    }
+
+    private Object nextAction(int n) {
+        return actions[(n + n / slots) % actions.length];
+    }
+
+    @Benchmark
+    public void singleSlot() {
+        int n = step++;
+        App.setMapAction(tracker, n % slots, nextAction(n));
+    }
+
+    @Benchmark
+    public void range() {
+        int n = step++;
+        int from = n % (slots - RANGE_LENGTH);
+        App.setMapAction(tracker, nextAction(n), from, from + RANGE_LENGTH);
+    }
+
+    @Benchmark
+    public void wrapAroundRange() {
+        int n = step++;
+        int offset = n % RANGE_LENGTH;
+        App.setMapAction(tracker, nextAction(n), slots - 1 - offset, offset);
+    }
+}
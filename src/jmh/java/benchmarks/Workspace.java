@@ -0,0 +1,36 @@
+package benchmarks;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+final class Workspace implements AutoCloseable {
+    private final Path directory;
+    private final PrintStream console;
+
+    Workspace() throws IOException {
+        this.directory = Files.createTempDirectory("tracker-bench");
+        this.console = System.out;
+        System.setProperty("tracker.dir", directory.toString());
+        System.setOut(new PrintStream(OutputStream.nullOutputStream(), false, StandardCharsets.UTF_8));
+    }
+
+    Path newDirectory() throws IOException {
+        return Files.createTempDirectory(directory, "fork");
+    }
+
+    @Override
+    public void close() throws IOException {
+        System.setOut(console);
+        try (Stream<Path> files = Files.walk(directory)) {
+            for (Path file : (Iterable<Path>) files.sorted(Comparator.reverseOrder())::iterator) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
@@ -1,12 +1,21 @@
 import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 public class Action implements Serializable {
     private static final long serialVersionUID = 1L;
+    private static final String CUSTOM_ACTIONS_FILE = "custom_actions.dat";
+    private static final int COMPACTION_MIN_GARBAGE = 64;
 
     private final String id;
     private final String displayName;
     private final boolean isCustom;
+    private transient int index;
 
     public static final Action NULL = new Action("NULL", "Свободно", false);
     public static final Action SLEEP = new Action("SLEEP", "Сон", false);
@@ -15,16 +24,25 @@ public class Action implements Serializable {
     public static final Action LEARNING = new Action("LEARNING", "Учёба", false);
 
     private static final Map<String, Action> defaultActions = new HashMap<>();
-    private static final Map<String, Action> customActions = new HashMap<>();
+    private static final Map<String, Action> registered = new HashMap<>();
+    private static volatile Action[] registry = new Action[16];
+    private static volatile int registrySize;
+    private static final Object catalogLock = new Object();
+    private static final List<Action> unsavedActions = new ArrayList<>();
+    private static int catalogRecords;
+    private static long catalogOffset;
+    private static Object catalogKey;
+    private static CompletableFuture<Void> catalogLoading;
+    private static volatile boolean catalogLoaded;
+    private static volatile Catalog catalog;
 
     static {
-        defaultActions.put(NULL.id, NULL);
-        defaultActions.put(SLEEP.id, SLEEP);
-        defaultActions.put(WORK.id, WORK);
-        defaultActions.put(TRAINING.id, TRAINING);
-        defaultActions.put(LEARNING.id, LEARNING);
-
-        loadCustomActions();
+        defaultActions.put(NULL.id, register(NULL));
+        defaultActions.put(SLEEP.id, register(SLEEP));
+        defaultActions.put(WORK.id, register(WORK));
+        defaultActions.put(TRAINING.id, register(TRAINING));
+        defaultActions.put(LEARNING.id, register(LEARNING));
+        catalog = new Catalog(new ConcurrentHashMap<>());
     }
 
     private Action(String id, String displayName, boolean isCustom) {
@@ -33,88 +51,299 @@ public class Action implements Serializable {
         this.isCustom = isCustom;
     }
 
+    public static CompletableFuture<Void> preloadCustomActions(Executor executor) {
+        synchronized (catalogLock) {
+            if (catalogLoading == null) {
+                catalogLoading = CompletableFuture.runAsync(() -> {
+                    loadCustomActions();
+                    catalogLoaded = true;
+                }, executor);
+            }
+            return catalogLoading;
+        }
+    }
+
+    private static void ensureCatalog() {
+        if (!catalogLoaded) {
+            preloadCustomActions(Runnable::run).join();
+        }
+    }
+
     public static Action createCustomAction(String displayName) {
-        if (displayName == null || displayName.trim().isEmpty()) {
-            throw new IllegalArgumentException("Название действия не может быть пустым");
+        ensureCatalog();
+        String id = customActionId(displayName);
+
+        synchronized (catalogLock) {
+            if (defaultActions.containsKey(id) || catalog.actions.containsKey(id)) {
+                throw new IllegalArgumentException("Действие с таким именем уже существует");
+            }
+
+            if (catalog.names.contains(displayName)) {
+                throw new IllegalArgumentException("Действие с таким отображаемым именем уже существует");
+            }
+
+            return addCustomAction(id, displayName.trim());
         }
+    }
 
-        String id = "USER_" + displayName.trim().toUpperCase()
-                .replace(" ", "_")
-                .replaceAll("[^A-ZА-Я0-9_]", "");
+    public static Action getOrCreateCustomAction(String displayName) {
+        ensureCatalog();
+        Action existing = catalog.names.find(displayName);
+        if (existing != null) {
+            return existing;
+        }
 
-        if (defaultActions.containsKey(id) || customActions.containsKey(id)) {
+        String id = customActionId(displayName);
+        synchronized (catalogLock) {
+            return getOrCreateLocked(id, displayName);
+        }
+    }
+
+    public static List<Action> getOrCreateCustomActions(Collection<String> displayNames) {
+        ensureCatalog();
+        List<Action> actions = new ArrayList<>(displayNames.size());
+        synchronized (catalogLock) {
+            for (String displayName : displayNames) {
+                actions.add(getOrCreateLocked(customActionId(displayName), displayName));
+            }
+        }
+        return actions;
+    }
+
+    private static Action getOrCreateLocked(String id, String displayName) {
+        Action existing = catalog.names.find(displayName);
+        if (existing != null) {
+            return existing;
+        }
+
+        if (defaultActions.containsKey(id) || catalog.actions.containsKey(id)) {
             throw new IllegalArgumentException("Действие с таким именем уже существует");
         }
+        return addCustomAction(id, displayName.trim());
+    }
 
-        if (findActionName(displayName.trim()) != null) {
-            throw new IllegalArgumentException("Действие с таким отображаемым именем уже существует");
+    static String customActionId(String displayName) {
+        if (displayName == null || displayName.trim().isEmpty()) {
+            throw new IllegalArgumentException("Название действия не может быть пустым");
         }
 
-        Action action = new Action(id, displayName.trim(), true);
-        customActions.put(id, action);
+        String name = displayName.trim().toUpperCase();
+        StringBuilder id = new StringBuilder(5 + name.length()).append("USER_");
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == ' ') {
+                id.append('_');
+            } else if (c >= 'A' && c <= 'Z' || c >= 'А' && c <= 'Я' || c >= '0' && c <= '9' || c == '_') {
+                id.append(c);
+            }
+        }
+        return id.toString();
+    }
+
+    private static Action addCustomAction(String id, String displayName) {
+        Action action = customAction(id, displayName);
+        catalog.add(action);
+        unsavedActions.add(action);
         return action;
     }
 
-    public static Action getAction(String actionId) {
-        Action action = defaultActions.get(actionId);
-        if (action == null) {
-            action = customActions.get(actionId);
+    private static Action customAction(String id, String displayName) {
+        Action action = registered.get(id);
+        if (action == null || !action.displayName.equals(displayName)) {
+            action = register(new Action(id, displayName, true));
+            registered.put(id, action);
         }
         return action;
     }
 
-    public static Action findActionName(String displayName) {
-        String searchName = displayName.trim();
+    private static Action register(Action action) {
+        int size = registrySize;
+        Action[] actions = registry;
+        if (size == actions.length) {
+            actions = Arrays.copyOf(actions, size * 2);
+        }
+        actions[size] = action;
+        action.index = size;
+        registry = actions;
+        registrySize = size + 1;
+        return action;
+    }
 
-        for (Action action : defaultActions.values()) {
-            if (action.getDisplayName().equalsIgnoreCase(searchName)) {
-                return action;
-            }
+    public static Action byIndex(int index) {
+        ensureCatalog();
+        int size = registrySize;
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Нет действия с индексом " + index);
         }
+        return registry[index];
+    }
 
-        for (Action action : customActions.values()) {
-            if (action.getDisplayName().equalsIgnoreCase(searchName)) {
-                return action;
-            }
+    public static int count() {
+        ensureCatalog();
+        return registrySize;
+    }
+
+    public static Action getAction(String actionId) {
+        ensureCatalog();
+        Action action = defaultActions.get(actionId);
+        if (action == null) {
+            action = catalog.actions.get(actionId);
         }
+        return action;
+    }
 
-        return null;
+    public static Action findActionName(String displayName) {
+        ensureCatalog();
+        return catalog.names.find(displayName);
+    }
+
+    public static List<Action> suggestActions(String prefix, int limit) {
+        ensureCatalog();
+        return catalog.names.suggest(prefix, limit);
     }
 
     public static List<Action> getAllActions() {
+        ensureCatalog();
         List<Action> actionList = new ArrayList<>(defaultActions.values());
-        actionList.addAll(customActions.values());
+        actionList.addAll(catalog.actions.values());
         return Collections.unmodifiableList(actionList);
     }
 
     public static void loadCustomActions() {
-        File file = new File("custom_actions.dat");
-        if (!file.exists()) return;
+        Path file = catalogFile();
+        if (!Files.exists(file)) return;
+
+        synchronized (catalogLock) {
+            readCustomActions(file);
+        }
+    }
 
-        try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(file))) {
-            List<Action> loadedActions = (List<Action>) ois.readObject();
-            customActions.clear();
+    private static void readCustomActions(Path file) {
+        long started = TrackerMetrics.start();
+        try {
+            Map<String, Action> loaded = new ConcurrentHashMap<>();
+            int[] records = new int[1];
 
-            for (Action action : loadedActions) {
-                if (!defaultActions.containsKey(action.getId())) {
-                    customActions.put(action.getId(), action);
+            long offset = BinaryCodec.readActions(file, (id, displayName) -> {
+                records[0]++;
+                if (!defaultActions.containsKey(id) && !loaded.containsKey(id)) {
+                    loaded.put(id, customAction(id, displayName));
                 }
-            }
+            });
+            Object key = fileKey(file);
 
-            System.out.println("Загружено: " + loadedActions.size() + " пользовательских действий");
-        } catch (IOException | ClassNotFoundException e) {
+            unsavedActions.removeIf(action -> loaded.containsKey(action.id));
+            unsavedActions.forEach(action -> loaded.put(action.id, action));
+            catalog = new Catalog(loaded);
+            catalogRecords = records[0];
+            catalogOffset = offset;
+            catalogKey = key;
+            System.out.println("Загружено: " + loaded.size() + " пользовательских действий");
+            if (needsCompaction()) {
+                compactCustomActions(file);
+            }
+        } catch (IOException e) {
+            TrackerMetrics.error(TrackerMetrics.Operation.LOAD_CUSTOM_ACTIONS);
             System.out.println("Не удалось загрузить пользовательские действия: " + e.getMessage());
+        } finally {
+            TrackerMetrics.stop(TrackerMetrics.Operation.LOAD_CUSTOM_ACTIONS, started);
+        }
+    }
+
+    public static int reloadCustomActions() {
+        ensureCatalog();
+        Path file = catalogFile();
+
+        synchronized (catalogLock) {
+            try {
+                if (!Files.exists(file)) {
+                    return 0;
+                }
+
+                int before = catalog.actions.size();
+                if (!Objects.equals(fileKey(file), catalogKey) || Files.size(file) < catalogOffset) {
+                    readCustomActions(file);
+                    return catalog.actions.size() - before;
+                }
+
+                catalogOffset = BinaryCodec.readActions(file, catalogOffset, (id, displayName) -> {
+                    if (!defaultActions.containsKey(id) && !catalog.actions.containsKey(id)) {
+                        catalogRecords++;
+                        catalog.add(customAction(id, displayName));
+                    }
+                });
+                return catalog.actions.size() - before;
+            } catch (IOException e) {
+                System.out.println("Не удалось перечитать пользовательские действия: " + e.getMessage());
+                return 0;
+            }
         }
     }
 
+    static Path catalogFile() {
+        return AppSettings.dataFile(CUSTOM_ACTIONS_FILE);
+    }
+
+    private static Object fileKey(Path file) throws IOException {
+        return Files.readAttributes(file, BasicFileAttributes.class).fileKey();
+    }
+
     public static void saveCustomActions() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream("custom_actions.dat"))) {
+        ensureCatalog();
+        synchronized (catalogLock) {
+            Path file = catalogFile();
+            long started = TrackerMetrics.start();
+            try {
+                if (!Files.exists(file)) {
+                    compactCustomActions(file);
+                    return;
+                }
+                if (unsavedActions.isEmpty()) {
+                    return;
+                }
 
-            List<Action> customActionsList = new ArrayList<>(customActions.values());
-            oos.writeObject(customActionsList);
-        } catch (IOException e) {
-            System.out.println("Не удалось сохранить пользовательские действия: " + e.getMessage());
+                BinaryCodec.appendActions(file, unsavedActions);
+                catalogRecords += unsavedActions.size();
+                unsavedActions.clear();
+                if (needsCompaction()) {
+                    compactCustomActions(file);
+                }
+            } catch (IOException e) {
+                TrackerMetrics.error(TrackerMetrics.Operation.SAVE_CUSTOM_ACTIONS);
+                System.out.println("Не удалось сохранить пользовательские действия: " + e.getMessage());
+            } finally {
+                TrackerMetrics.stop(TrackerMetrics.Operation.SAVE_CUSTOM_ACTIONS, started);
+            }
+        }
+    }
+
+    private static boolean needsCompaction() {
+        int live = catalog.actions.size();
+        int garbage = catalogRecords - live;
+        return garbage > COMPACTION_MIN_GARBAGE && garbage > live;
+    }
+
+    private static void compactCustomActions(Path file) throws IOException {
+        BinaryCodec.writeActions(file, catalog.actions.values());
+        catalogRecords = catalog.actions.size();
+        catalogOffset = Files.size(file);
+        catalogKey = fileKey(file);
+        unsavedActions.clear();
+    }
+
+    private static class Catalog {
+        private final Map<String, Action> actions;
+        private final ActionIndex names = new ActionIndex();
+
+        Catalog(Map<String, Action> actions) {
+            this.actions = actions;
+            defaultActions.values().forEach(names::put);
+            actions.values().forEach(names::put);
+        }
+
+        void add(Action action) {
+            actions.put(action.id, action);
+            names.put(action);
         }
     }
 
@@ -130,6 +359,10 @@ public class Action implements Serializable {
         return isCustom;
     }
 
+    public int getIndex() {
+        return index;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
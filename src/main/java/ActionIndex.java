@@ -0,0 +1,103 @@
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+public class ActionIndex {
+    private final Map<String, Action> byName = new ConcurrentHashMap<>();
+    private final Node root = new Node();
+
+    public static String fold(String name) {
+        return name.trim().toLowerCase(Locale.ROOT);
+    }
+
+    public synchronized void clear() {
+        byName.clear();
+        root.clear();
+    }
+
+    public synchronized boolean put(Action action) {
+        String key = fold(action.getDisplayName());
+        if (byName.putIfAbsent(key, action) != null) {
+            return false;
+        }
+
+        Node node = root;
+        for (int i = 0; i < key.length(); i++) {
+            node = node.childOrCreate(key.charAt(i));
+        }
+        node.action = action;
+        return true;
+    }
+
+    public Action find(String displayName) {
+        return byName.get(fold(displayName));
+    }
+
+    public boolean contains(String displayName) {
+        return byName.containsKey(fold(displayName));
+    }
+
+    public synchronized List<Action> suggest(String prefix, int limit) {
+        String key = fold(prefix);
+        Node node = root;
+
+        for (int i = 0; i < key.length() && node != null; i++) {
+            node = node.child(key.charAt(i));
+        }
+
+        List<Action> result = new ArrayList<>(Math.min(limit, 16));
+        if (node != null) {
+            collect(node, result, limit);
+        }
+        return result;
+    }
+
+    private static void collect(Node node, List<Action> result, int limit) {
+        if (node.action != null) {
+            result.add(node.action);
+        }
+        for (int i = 0; i < node.childCount && result.size() < limit; i++) {
+            collect(node.children[i], result, limit);
+        }
+    }
+
+    private static class Node {
+        private char[] keys = new char[0];
+        private Node[] children = new Node[0];
+        private int childCount;
+        private Action action;
+
+        Node child(char key) {
+            int index = Arrays.binarySearch(keys, 0, childCount, key);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node childOrCreate(char key) {
+            int index = Arrays.binarySearch(keys, 0, childCount, key);
+            if (index >= 0) {
+                return children[index];
+            }
+
+            int at = -index - 1;
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(keys, at, keys, at + 1, childCount - at);
+            System.arraycopy(children, at, children, at + 1, childCount - at);
+
+            Node node = new Node();
+            keys[at] = key;
+            children[at] = node;
+            childCount++;
+            return node;
+        }
+
+        void clear() {
+            keys = new char[0];
+            children = new Node[0];
+            childCount = 0;
+            action = null;
+        }
+    }
+}
@@ -1,10 +1,21 @@
 import java.io.Serializable;
+import java.nio.file.Path;
 import java.util.Objects;
 
 public class AppSettings implements Serializable {
+    private static final long serialVersionUID = 5947244958931070245L;
+    public static final int DEFAULT_MINUTES_PER_SLOT = 30;
+    public static final String DATA_DIR_PROPERTY = "tracker.dir";
+
     private char splitter = ',';
     private boolean autoLoadEnabled = false;
     private String dateFormat = "dd.MM.yyyy";
+    private HistoryJournal.SyncPolicy journalSyncPolicy = HistoryJournal.SyncPolicy.BATCH;
+    private int minutesPerSlot = DEFAULT_MINUTES_PER_SLOT;
+
+    public static Path dataFile(String name) {
+        return Path.of(System.getProperty(DATA_DIR_PROPERTY, ""), name);
+    }
 
     public char getSplitter() {
         return splitter;
@@ -30,6 +41,25 @@ public class AppSettings implements Serializable {
         this.dateFormat = dateFormat;
     }
 
+    public HistoryJournal.SyncPolicy getJournalSyncPolicy() {
+        return journalSyncPolicy != null ? journalSyncPolicy : HistoryJournal.SyncPolicy.BATCH;
+    }
+
+    public void setJournalSyncPolicy(HistoryJournal.SyncPolicy journalSyncPolicy) {
+        this.journalSyncPolicy = journalSyncPolicy;
+    }
+
+    public int getMinutesPerSlot() {
+        return minutesPerSlot > 0 ? minutesPerSlot : DEFAULT_MINUTES_PER_SLOT;
+    }
+
+    public void setMinutesPerSlot(int minutesPerSlot) {
+        if (minutesPerSlot <= 0 || 24 * 60 % minutesPerSlot != 0) {
+            throw new IllegalArgumentException("Длительность слота должна делить сутки без остатка");
+        }
+        this.minutesPerSlot = minutesPerSlot;
+    }
+
     @Override
     public boolean equals(Object obj) {
         if (this == obj) return true;
@@ -37,17 +67,19 @@ public class AppSettings implements Serializable {
         AppSettings that = (AppSettings) obj;
         return splitter == that.splitter &&
                 autoLoadEnabled == that.autoLoadEnabled &&
-                Objects.equals(dateFormat, that.dateFormat);
+                Objects.equals(dateFormat, that.dateFormat) &&
+                getJournalSyncPolicy() == that.getJournalSyncPolicy() &&
+                getMinutesPerSlot() == that.getMinutesPerSlot();
     }
 
     @Override
     public int hashCode() {
-        return Objects.hash(splitter, autoLoadEnabled, dateFormat);
+        return Objects.hash(splitter, autoLoadEnabled, dateFormat, getJournalSyncPolicy(), getMinutesPerSlot());
     }
 
     @Override
     public String toString() {
-        return String.format("AppSettings[splitter='%c', autoLoad=%s, dateFormat=%s]",
-                splitter, autoLoadEnabled, dateFormat);
+        return String.format("AppSettings[splitter='%c', autoLoad=%s, dateFormat=%s, journalSync=%s, minutesPerSlot=%d]",
+                splitter, autoLoadEnabled, dateFormat, getJournalSyncPolicy().name(), getMinutesPerSlot());
     }
 }
\ No newline at end of file
@@ -0,0 +1,133 @@
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+public class BatchingSubscriber<T, K> implements Flow.Subscriber<T> {
+    private final int maxBatch;
+    private final long lingerMillis;
+    private final Function<T, K> key;
+    private final BinaryOperator<T> merge;
+    private final Consumer<List<T>> handler;
+    private final ScheduledExecutorService scheduler;
+    private final Executor executor;
+    private final Map<K, T> pending = new LinkedHashMap<>();
+    private final CompletableFuture<Void> completion = new CompletableFuture<>();
+    private Flow.Subscription subscription;
+    private ScheduledFuture<?> scheduled;
+    private int received;
+    private long batches;
+    private boolean running;
+    private boolean done;
+
+    public BatchingSubscriber(int maxBatch, long lingerMillis, Function<T, K> key, BinaryOperator<T> merge,
+                              Consumer<List<T>> handler, ScheduledExecutorService scheduler, Executor executor) {
+        if (maxBatch < 1) {
+            throw new IllegalArgumentException("Размер пакета должен быть положительным");
+        }
+        this.maxBatch = maxBatch;
+        this.lingerMillis = lingerMillis;
+        this.key = key;
+        this.merge = merge;
+        this.handler = handler;
+        this.scheduler = scheduler;
+        this.executor = executor;
+    }
+
+    @Override
+    public synchronized void onSubscribe(Flow.Subscription subscription) {
+        this.subscription = subscription;
+        subscription.request(maxBatch);
+    }
+
+    @Override
+    public synchronized void onNext(T item) {
+        pending.merge(key.apply(item), item, merge);
+        received++;
+        if (received >= maxBatch) {
+            drain();
+        } else if (scheduled == null) {
+            scheduled = scheduler.schedule(this::drain, lingerMillis, TimeUnit.MILLISECONDS);
+        }
+    }
+
+    @Override
+    public synchronized void onError(Throwable error) {
+        System.out.println("Ошибка обработки событий: " + error.getMessage());
+        onComplete();
+    }
+
+    @Override
+    public synchronized void onComplete() {
+        done = true;
+        drain();
+        completeIfIdle();
+    }
+
+    public synchronized long getBatchCount() {
+        return batches;
+    }
+
+    public boolean awaitCompletion(long timeout, TimeUnit unit) throws InterruptedException {
+        try {
+            completion.get(timeout, unit);
+            return true;
+        } catch (ExecutionException | TimeoutException e) {
+            return false;
+        }
+    }
+
+    private synchronized void drain() {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+            scheduled = null;
+        }
+        if (received == 0 || running) {
+            return;
+        }
+
+        List<T> batch = new ArrayList<>(pending.values());
+        int consumed = received;
+        pending.clear();
+        received = 0;
+        batches++;
+        running = true;
+        try {
+            executor.execute(() -> handle(batch, consumed));
+        } catch (RejectedExecutionException e) {
+            System.out.println("Ошибка обработки событий: " + e.getMessage());
+            finished(consumed);
+        }
+    }
+
+    private void handle(List<T> batch, int consumed) {
+        try {
+            handler.accept(batch);
+        } catch (RuntimeException e) {
+            System.out.println("Ошибка обработки событий: " + e.getMessage());
+        } finally {
+            finished(consumed);
+        }
+    }
+
+    private synchronized void finished(int consumed) {
+        running = false;
+        if (subscription != null && !done) {
+            subscription.request(consumed);
+        }
+        if (received > 0 && (done || received >= maxBatch || scheduled == null)) {
+            drain();
+        }
+        completeIfIdle();
+    }
+
+    private void completeIfIdle() {
+        if (done && !running && received == 0) {
+            completion.complete(null);
+        }
+    }
+}
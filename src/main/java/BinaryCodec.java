@@ -0,0 +1,392 @@
+import java.io.*;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+public final class BinaryCodec {
+    private static final int SETTINGS_MAGIC = 0x54545354;
+    private static final int CATALOG_MAGIC = 0x54544143;
+    private static final short SETTINGS_VERSION = 2;
+    private static final short CATALOG_VERSION = 1;
+    private static final int LABELS_MAGIC = 0x5454424C;
+    private static final short LABELS_VERSION = 2;
+    private static final byte LABEL_CODE = 0;
+    private static final byte LABEL_ADD = 1;
+    private static final byte LABEL_REMOVE = 2;
+    private static final int LABEL_RECORD_SIZE = Byte.BYTES + Long.BYTES + 3 * Short.BYTES;
+    private static final short LEGACY_MAGIC = (short) 0xACED;
+    private static final int HEADER_SIZE = Integer.BYTES + Short.BYTES;
+
+    public interface ActionConsumer {
+        void accept(String id, String displayName);
+    }
+
+    public interface LabelConsumer {
+        void accept(LocalDate date, int fromMinute, int toMinute, String actionId, boolean added);
+    }
+
+    private BinaryCodec() {
+    }
+
+    public static AppSettings readSettings(Path file) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+
+        if (isLegacy(in)) {
+            AppSettings settings = (AppSettings) readLegacy(file);
+            writeSettings(file, settings);
+            System.out.println("Настройки перенесены в новый формат");
+            return settings;
+        }
+
+        try {
+            short version = checkHeader(in, SETTINGS_MAGIC, SETTINGS_VERSION, file);
+            AppSettings settings = new AppSettings();
+            settings.setSplitter(in.getChar());
+            settings.setAutoLoadEnabled(in.get() != 0);
+            settings.setDateFormat(readString(in));
+            settings.setJournalSyncPolicy(HistoryJournal.SyncPolicy.valueOf(readString(in)));
+            if (version >= 2) {
+                settings.setMinutesPerSlot(in.getShort());
+            }
+            return settings;
+        } catch (BufferUnderflowException | IllegalArgumentException e) {
+            throw new IOException("повреждён файл " + file, e);
+        }
+    }
+
+    public static void writeSettings(Path file, AppSettings settings) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(256);
+        out.putInt(SETTINGS_MAGIC).putShort(SETTINGS_VERSION);
+        out.putChar(settings.getSplitter());
+        out.put((byte) (settings.isAutoLoadEnabled() ? 1 : 0));
+        out = putString(out, settings.getDateFormat());
+        out = putString(out, settings.getJournalSyncPolicy().name());
+        out.putShort((short) settings.getMinutesPerSlot());
+        replace(file, out);
+    }
+
+    public static long readActions(Path file, ActionConsumer consumer) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+
+        if (isLegacy(in)) {
+            List<Action> legacy = new ArrayList<>();
+            for (Object item : (List<?>) readLegacy(file)) {
+                legacy.add((Action) item);
+            }
+            writeActions(file, legacy);
+            System.out.println("Пользовательские действия перенесены в новый формат");
+
+            for (Action action : legacy) {
+                consumer.accept(action.getId(), action.getDisplayName());
+            }
+            return Files.size(file);
+        }
+
+        try {
+            checkHeader(in, CATALOG_MAGIC, CATALOG_VERSION, file);
+        } catch (BufferUnderflowException e) {
+            throw new IOException("повреждён файл " + file, e);
+        }
+
+        int end = readRecords(in, consumer);
+        if (end < in.limit()) {
+            truncate(file, end);
+            System.out.println("Журнал действий обрезан до последней целой записи");
+        }
+        return end;
+    }
+
+    public static long readActions(Path file, long offset, ActionConsumer consumer) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            if (offset < HEADER_SIZE || size - offset > Integer.MAX_VALUE) {
+                throw new IOException("неверное смещение " + offset + " в файле " + file);
+            }
+            if (size <= offset) {
+                return offset;
+            }
+
+            ByteBuffer in = ByteBuffer.allocate((int) (size - offset));
+            while (in.hasRemaining()) {
+                if (channel.read(in, offset + in.position()) < 0) {
+                    break;
+                }
+            }
+            in.flip();
+            return offset + readRecords(in, consumer);
+        }
+    }
+
+    private static int readRecords(ByteBuffer in, ActionConsumer consumer) {
+        int end = in.position();
+        while (in.hasRemaining()) {
+            String id;
+            String displayName;
+            try {
+                id = readString(in);
+                displayName = readString(in);
+            } catch (BufferUnderflowException e) {
+                break;
+            }
+            consumer.accept(id, displayName);
+            end = in.position();
+        }
+        return end;
+    }
+
+    public static void appendActions(Path file, Collection<Action> actions) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(actions.size() * 64);
+        for (Action action : actions) {
+            out = putString(out, action.getId());
+            out = putString(out, action.getDisplayName());
+        }
+        append(file, out);
+    }
+
+    public static void writeActions(Path file, Collection<Action> actions) throws IOException {
+        ByteBuffer out = ByteBuffer.allocate(64 + actions.size() * 64);
+        out.putInt(CATALOG_MAGIC).putShort(CATALOG_VERSION);
+        for (Action action : actions) {
+            out = putString(out, action.getId());
+            out = putString(out, action.getDisplayName());
+        }
+        replace(file, out);
+    }
+
+    public static long readLabels(Path file, List<String> codes, LabelConsumer consumer) throws IOException {
+        ByteBuffer in = ByteBuffer.wrap(Files.readAllBytes(file));
+        short version;
+        int minutesPerSlot;
+        try {
+            version = checkHeader(in, LABELS_MAGIC, LABELS_VERSION, file);
+            minutesPerSlot = in.getShort();
+        } catch (BufferUnderflowException e) {
+            throw new IOException("повреждён файл " + file, e);
+        }
+
+        codes.clear();
+        if (version == 1) {
+            return migrateLabels(file, in, minutesPerSlot, codes, consumer);
+        }
+
+        long records = 0;
+        int end = in.position();
+        try {
+            while (in.hasRemaining()) {
+                byte kind = in.get();
+                if (kind == LABEL_CODE) {
+                    codes.add(readString(in));
+                } else {
+                    LocalDate date = LocalDate.ofEpochDay(in.getLong());
+                    int fromMinute = in.getShort();
+                    int toMinute = in.getShort();
+                    int code = in.getShort();
+                    if (kind != LABEL_ADD && kind != LABEL_REMOVE || code < 0 || code >= codes.size()) {
+                        throw new IOException("повреждён файл " + file);
+                    }
+                    consumer.accept(date, fromMinute, toMinute, codes.get(code), kind == LABEL_ADD);
+                    records++;
+                }
+                end = in.position();
+            }
+        } catch (BufferUnderflowException e) {
+            truncate(file, end);
+            System.out.println("Журнал совмещённых действий обрезан до последней целой записи");
+        } catch (DateTimeException e) {
+            throw new IOException("повреждён файл " + file, e);
+        }
+        return records;
+    }
+
+    private static long migrateLabels(Path file, ByteBuffer in, int minutesPerSlot, List<String> codes,
+                                      LabelConsumer consumer) throws IOException {
+        ByteBuffer out = labelsHeader(minutesPerSlot);
+        long records = 0;
+        try {
+            while (in.hasRemaining()) {
+                LocalDate date = LocalDate.ofEpochDay(in.getLong());
+                int fromMinute = in.getShort();
+                int toMinute = fromMinute + minutesPerSlot - 1;
+                String actionId = readString(in);
+                out = putLabel(out, date, fromMinute, toMinute, actionId, true, codes);
+                consumer.accept(date, fromMinute, toMinute, actionId, true);
+                records++;
+            }
+        } catch (BufferUnderflowException | DateTimeException e) {
+            throw new IOException("повреждён файл " + file, e);
+        }
+        replace(file, out);
+        System.out.println("Совмещённые действия перенесены в новый формат");
+        return records;
+    }
+
+    public static long writeLabels(Path file, SlotLabels labels, int minutesPerSlot, List<String> codes)
+            throws IOException {
+        ByteBuffer[] out = {labelsHeader(minutesPerSlot)};
+        long[] records = {0};
+        IOException[] failure = new IOException[1];
+        codes.clear();
+
+        labels.forEachRange((date, from, to, action) -> {
+            if (failure[0] != null) {
+                return;
+            }
+            try {
+                out[0] = putLabel(out[0], date, from * minutesPerSlot, to * minutesPerSlot + minutesPerSlot - 1,
+                        Action.byIndex(action).getId(), true, codes);
+                records[0]++;
+            } catch (IOException e) {
+                failure[0] = e;
+            }
+        });
+
+        if (failure[0] != null) {
+            throw failure[0];
+        }
+        replace(file, out[0]);
+        return records[0];
+    }
+
+    public static void appendLabel(Path file, LocalDate date, int fromMinute, int toMinute, String actionId,
+                                   boolean added, List<String> codes) throws IOException {
+        int known = codes.size();
+        ByteBuffer out = putLabel(ByteBuffer.allocate(64), date, fromMinute, toMinute, actionId, added, codes);
+        try {
+            append(file, out);
+        } catch (IOException e) {
+            codes.subList(known, codes.size()).clear();
+            throw e;
+        }
+    }
+
+    private static ByteBuffer labelsHeader(int minutesPerSlot) {
+        ByteBuffer out = ByteBuffer.allocate(1024);
+        out.putInt(LABELS_MAGIC).putShort(LABELS_VERSION).putShort((short) minutesPerSlot);
+        return out;
+    }
+
+    private static ByteBuffer putLabel(ByteBuffer out, LocalDate date, int fromMinute, int toMinute, String actionId,
+                                       boolean added, List<String> codes) throws IOException {
+        int code = codes.indexOf(actionId);
+        if (code < 0) {
+            code = codes.size();
+            out = putString(ensureCapacity(out, Byte.BYTES).put(LABEL_CODE), actionId);
+            codes.add(actionId);
+        }
+        return ensureCapacity(out, LABEL_RECORD_SIZE)
+                .put(added ? LABEL_ADD : LABEL_REMOVE)
+                .putLong(date.toEpochDay())
+                .putShort((short) fromMinute)
+                .putShort((short) toMinute)
+                .putShort((short) code);
+    }
+
+    private static boolean isLegacy(ByteBuffer in) {
+        return in.remaining() >= Short.BYTES && in.getShort(0) == LEGACY_MAGIC;
+    }
+
+    private static short checkHeader(ByteBuffer in, int magic, short version, Path file) throws IOException {
+        if (in.remaining() < HEADER_SIZE || in.getInt() != magic) {
+            throw new IOException("неизвестный формат файла " + file);
+        }
+        short fileVersion = in.getShort();
+        if (fileVersion < 1 || fileVersion > version) {
+            throw new IOException("неподдерживаемая версия " + fileVersion + " файла " + file);
+        }
+        return fileVersion;
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = Short.toUnsignedInt(in.getShort());
+        if (length > in.remaining()) {
+            throw new BufferUnderflowException();
+        }
+        String value = new String(in.array(), in.arrayOffset() + in.position(), length, StandardCharsets.UTF_8);
+        in.position(in.position() + length);
+        return value;
+    }
+
+    private static ByteBuffer putString(ByteBuffer out, String value) throws IOException {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        if (bytes.length > 0xFFFF) {
+            throw new IOException("слишком длинная строка: " + value.length() + " символов");
+        }
+        return ensureCapacity(out, Short.BYTES + bytes.length).putShort((short) bytes.length).put(bytes);
+    }
+
+    private static ByteBuffer ensureCapacity(ByteBuffer out, int bytes) {
+        if (out.remaining() >= bytes) {
+            return out;
+        }
+        ByteBuffer grown = ByteBuffer.allocate(Math.max(out.capacity() * 2, out.position() + bytes));
+        out.flip();
+        return grown.put(out);
+    }
+
+    private static void replace(Path file, ByteBuffer out) throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        out.flip();
+
+        try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static void append(Path file, ByteBuffer out) throws IOException {
+        out.flip();
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.APPEND)) {
+            while (out.hasRemaining()) {
+                channel.write(out);
+            }
+            channel.force(false);
+        }
+    }
+
+    private static void truncate(Path file, long size) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+    }
+
+    private static Object readLegacy(Path file) throws IOException {
+        Path backup = file.resolveSibling(file.getFileName() + ".legacy");
+        Files.copy(file, backup, StandardCopyOption.REPLACE_EXISTING);
+
+        try (ObjectInputStream ois = new LegacyInputStream(Files.newInputStream(file))) {
+            return ois.readObject();
+        } catch (ClassNotFoundException | ClassCastException | ObjectStreamException e) {
+            throw new IOException("не удалось прочитать старый формат " + file, e);
+        }
+    }
+
+    private static class LegacyInputStream extends ObjectInputStream {
+        LegacyInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected ObjectStreamClass readClassDescriptor() throws IOException, ClassNotFoundException {
+            ObjectStreamClass stored = super.readClassDescriptor();
+            if (stored.getName().equals(Action.class.getName()) || stored.getName().equals(AppSettings.class.getName())) {
+                ObjectStreamClass local = ObjectStreamClass.lookup(Class.forName(stored.getName()));
+                if (local != null && local.getSerialVersionUID() != stored.getSerialVersionUID()) {
+                    return local;
+                }
+            }
+            return stored;
+        }
+    }
+}
@@ -0,0 +1,86 @@
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.UnaryOperator;
+
+public class DayCache implements Closeable {
+    private final int capacity;
+    private final LinkedHashMap<LocalDate, DaySnapshot> days;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    public DayCache(int capacity) {
+        this.capacity = Math.max(0, capacity);
+        this.days = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<LocalDate, DaySnapshot> eldest) {
+                if (size() <= DayCache.this.capacity) {
+                    return false;
+                }
+                evictions.increment();
+                return true;
+            }
+        };
+        TrackerMetrics.track(TrackerMetrics.Counter.DAY_CACHE_HITS, hits);
+        TrackerMetrics.track(TrackerMetrics.Counter.DAY_CACHE_MISSES, misses);
+        TrackerMetrics.track(TrackerMetrics.Counter.DAY_CACHE_EVICTIONS, evictions);
+    }
+
+    public synchronized DaySnapshot get(LocalDate date) {
+        DaySnapshot day = days.get(date);
+        if (day != null) {
+            hits.increment();
+        } else {
+            misses.increment();
+        }
+        return day;
+    }
+
+    public synchronized void update(LocalDate date, UnaryOperator<DaySnapshot> update) {
+        days.computeIfPresent(date, (key, day) -> update.apply(day));
+    }
+
+    public synchronized void put(DaySnapshot day) {
+        if (capacity > 0) {
+            days.put(day.getDate(), day);
+        }
+    }
+
+    public synchronized void invalidate(LocalDate date) {
+        days.remove(date);
+    }
+
+    public synchronized void clear() {
+        days.clear();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public synchronized int size() {
+        return days.size();
+    }
+
+    public long getHits() {
+        return hits.sum();
+    }
+
+    public long getMisses() {
+        return misses.sum();
+    }
+
+    public long getEvictions() {
+        return evictions.sum();
+    }
+
+    @Override
+    public void close() {
+        TrackerMetrics.untrack(TrackerMetrics.Counter.DAY_CACHE_HITS, hits);
+        TrackerMetrics.untrack(TrackerMetrics.Counter.DAY_CACHE_MISSES, misses);
+        TrackerMetrics.untrack(TrackerMetrics.Counter.DAY_CACHE_EVICTIONS, evictions);
+    }
+}
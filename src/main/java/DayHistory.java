@@ -0,0 +1,72 @@
+import java.util.ArrayList;
+import java.util.List;
+
+public class DayHistory {
+    private final List<DaySnapshot> versions = new ArrayList<>();
+    private int position;
+
+    public DayHistory(DaySnapshot initial) {
+        versions.add(initial);
+    }
+
+    public DaySnapshot current() {
+        return versions.get(position);
+    }
+
+    public boolean commit(short[] slots) {
+        DaySnapshot updated = current().withSlots(slots);
+        if (updated == current()) {
+            return false;
+        }
+
+        versions.subList(position + 1, versions.size()).clear();
+        versions.add(updated);
+        position++;
+        return true;
+    }
+
+    public boolean canUndo() {
+        return position > 0;
+    }
+
+    public boolean canRedo() {
+        return position < versions.size() - 1;
+    }
+
+    public DaySnapshot undo() {
+        if (!canUndo()) {
+            throw new IllegalStateException("Нет правок для отмены");
+        }
+        return versions.get(--position);
+    }
+
+    public DaySnapshot redo() {
+        if (!canRedo()) {
+            throw new IllegalStateException("Нет правок для повтора");
+        }
+        return versions.get(++position);
+    }
+
+    public DaySnapshot getEdit(int edit) {
+        if (edit < 0 || edit >= versions.size()) {
+            throw new IllegalArgumentException("Номер правки должен быть в диапазоне 0-" + (versions.size() - 1));
+        }
+        return versions.get(edit);
+    }
+
+    public int getEditCount() {
+        return versions.size() - 1;
+    }
+
+    public int getPosition() {
+        return position;
+    }
+
+    public int getStoredChunks() {
+        int stored = versions.get(0).getChunkCount();
+        for (int i = 1; i < versions.size(); i++) {
+            stored += versions.get(i).getChunkCount() - versions.get(i).sharedChunks(versions.get(i - 1));
+        }
+        return stored;
+    }
+}
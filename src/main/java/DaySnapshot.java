@@ -0,0 +1,132 @@
+import java.time.LocalDate;
+import java.util.Arrays;
+
+public final class DaySnapshot {
+    private static final int CHUNK_BITS = 4;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final LocalDate date;
+    private final short[][] chunks;
+    private final int slotCount;
+    private final long version;
+
+    DaySnapshot(LocalDate date, short[] slots, long version) {
+        this(date, split(slots), slots.length, version);
+    }
+
+    private DaySnapshot(LocalDate date, short[][] chunks, int slotCount, long version) {
+        this.date = date;
+        this.chunks = chunks;
+        this.slotCount = slotCount;
+        this.version = version;
+    }
+
+    private static short[][] split(short[] slots) {
+        short[][] chunks = new short[(slots.length + CHUNK_MASK) >>> CHUNK_BITS][];
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            int from = chunk << CHUNK_BITS;
+            chunks[chunk] = Arrays.copyOfRange(slots, from, Math.min(from + CHUNK_SIZE, slots.length));
+        }
+        return chunks;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public int getActionIndex(int slot) {
+        return chunks[slot >>> CHUNK_BITS][slot & CHUNK_MASK];
+    }
+
+    public Action getAction(int slot) {
+        return Action.byIndex(getActionIndex(slot));
+    }
+
+    public short[] copySlots() {
+        short[] slots = new short[slotCount];
+        copyTo(slots);
+        return slots;
+    }
+
+    public void copyTo(short[] slots) {
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            System.arraycopy(chunks[chunk], 0, slots, chunk << CHUNK_BITS, chunks[chunk].length);
+        }
+    }
+
+    public SlotStatistics accept(SlotStatistics statistics) {
+        return statistics.accept(copySlots());
+    }
+
+    public int sharedChunks(DaySnapshot other) {
+        int shared = 0;
+        for (int chunk = 0; chunk < Math.min(chunks.length, other.chunks.length); chunk++) {
+            if (chunks[chunk] == other.chunks[chunk]) {
+                shared++;
+            }
+        }
+        return shared;
+    }
+
+    public int getChunkCount() {
+        return chunks.length;
+    }
+
+    DaySnapshot withRange(int from, int to, int actionIndex) {
+        short[][] updated = chunks.clone();
+        if (from <= to) {
+            fill(updated, from, to, (short) actionIndex);
+        } else {
+            fill(updated, from, slotCount - 1, (short) actionIndex);
+            fill(updated, 0, to, (short) actionIndex);
+        }
+        return new DaySnapshot(date, updated, slotCount, version + 1);
+    }
+
+    DaySnapshot withSlots(short[] slots) {
+        short[][] updated = null;
+        for (int chunk = 0; chunk < chunks.length; chunk++) {
+            int from = chunk << CHUNK_BITS;
+            if (Arrays.equals(chunks[chunk], 0, chunks[chunk].length, slots, from, from + chunks[chunk].length)) {
+                continue;
+            }
+            if (updated == null) {
+                updated = chunks.clone();
+            }
+            updated[chunk] = Arrays.copyOfRange(slots, from, from + chunks[chunk].length);
+        }
+        return updated == null ? this : new DaySnapshot(date, updated, slotCount, version + 1);
+    }
+
+    private static void fill(short[][] chunks, int from, int to, short value) {
+        for (int chunk = from >>> CHUNK_BITS; chunk <= to >>> CHUNK_BITS; chunk++) {
+            int start = Math.max(from, chunk << CHUNK_BITS) & CHUNK_MASK;
+            int end = Math.min(to, (chunk << CHUNK_BITS) + CHUNK_MASK) & CHUNK_MASK;
+            short[] current = chunks[chunk];
+            if (isFilled(current, start, end, value)) {
+                continue;
+            }
+            short[] copy = current.clone();
+            Arrays.fill(copy, start, end + 1, value);
+            chunks[chunk] = copy;
+        }
+    }
+
+    private static boolean isFilled(short[] chunk, int from, int to, short value) {
+        for (int slot = from; slot <= to; slot++) {
+            if (chunk[slot] != value) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
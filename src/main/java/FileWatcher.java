@@ -0,0 +1,104 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.file.*;
+import java.util.Map;
+import java.util.concurrent.*;
+
+public class FileWatcher implements Closeable {
+    private static final long DEBOUNCE_MILLIS = 300;
+    private static final long MAX_DELAY_MILLIS = 2000;
+
+    private final Path directory;
+    private final WatchService service;
+    private final ScheduledExecutorService reloader;
+    private final Map<Path, Runnable> listeners = new ConcurrentHashMap<>();
+    private final Map<Path, Burst> bursts = new ConcurrentHashMap<>();
+    private final Thread thread;
+
+    private static class Burst {
+        private final long startedNanos = System.nanoTime();
+        private ScheduledFuture<?> reload;
+    }
+
+    public FileWatcher(Path directory) throws IOException {
+        this.directory = directory.toAbsolutePath();
+        this.service = this.directory.getFileSystem().newWatchService();
+        this.directory.register(service, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY);
+        this.reloader = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread reloadThread = new Thread(runnable, "tracker-reloader");
+            reloadThread.setDaemon(true);
+            return reloadThread;
+        });
+        this.thread = new Thread(this::run, "tracker-watcher");
+        this.thread.setDaemon(true);
+    }
+
+    public void watch(Path file, Runnable listener) {
+        Path absolute = file.toAbsolutePath();
+        if (!directory.equals(absolute.getParent())) {
+            throw new IllegalArgumentException("Файл " + file + " вне каталога " + directory);
+        }
+        listeners.put(absolute.getFileName(), listener);
+    }
+
+    public void start() {
+        thread.start();
+    }
+
+    @Override
+    public void close() throws IOException {
+        service.close();
+        reloader.shutdownNow();
+    }
+
+    private void run() {
+        try {
+            while (true) {
+                WatchKey key = service.take();
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        listeners.forEach(this::schedule);
+                    } else {
+                        Path name = (Path) event.context();
+                        Runnable listener = listeners.get(name);
+                        if (listener != null) {
+                            schedule(name, listener);
+                        }
+                    }
+                }
+                key.reset();
+            }
+        } catch (InterruptedException | ClosedWatchServiceException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    private void schedule(Path name, Runnable listener) {
+        bursts.compute(name, (key, burst) -> {
+            if (burst == null) {
+                burst = new Burst();
+            } else if (!burst.reload.cancel(false)) {
+                burst = new Burst();
+            }
+
+            long waited = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - burst.startedNanos);
+            long delay = Math.max(0, Math.min(DEBOUNCE_MILLIS, MAX_DELAY_MILLIS - waited));
+            Burst scheduled = burst;
+            try {
+                burst.reload = reloader.schedule(() -> reload(name, scheduled, listener), delay, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                return null;
+            }
+            return burst;
+        });
+    }
+
+    private void reload(Path name, Burst burst, Runnable listener) {
+        bursts.remove(name, burst);
+        try {
+            listener.run();
+        } catch (RuntimeException e) {
+            System.out.println("Ошибка перезагрузки " + name + ": " + e.getMessage());
+        }
+    }
+}
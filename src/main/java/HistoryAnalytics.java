@@ -0,0 +1,236 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+public class HistoryAnalytics {
+    private static final int CHUNK_DAYS = 64;
+    private static final int WEEKDAYS = 7;
+
+    public interface DaySource {
+        void readDays(LocalDate from, int count, short[] days);
+    }
+
+    private final LocalDate from;
+    private final int slotsPerDay;
+    private final int minutesPerSlot;
+    private final Chunk result;
+
+    private HistoryAnalytics(LocalDate from, int slotsPerDay, int minutesPerSlot, Chunk result) {
+        this.from = from;
+        this.slotsPerDay = slotsPerDay;
+        this.minutesPerSlot = minutesPerSlot;
+        this.result = result;
+    }
+
+    public static HistoryAnalytics compute(LocalDate from, LocalDate to, int slotsPerDay, int minutesPerSlot,
+                                           DaySource source, ForkJoinPool pool) {
+        long dayCount = to.toEpochDay() - from.toEpochDay() + 1;
+        if (dayCount <= 0) {
+            throw new IllegalArgumentException("Начальная дата позже конечной");
+        }
+        if (dayCount > Integer.MAX_VALUE / slotsPerDay) {
+            throw new IllegalArgumentException("Слишком большой период");
+        }
+
+        Chunk result = pool.invoke(new ChunkTask(from, 0, (int) dayCount, slotsPerDay, source));
+        return new HistoryAnalytics(from, slotsPerDay, minutesPerSlot, result);
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public LocalDate getTo() {
+        return from.plusDays(result.days - 1);
+    }
+
+    public int getDayCount() {
+        return result.days;
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    public int getActionCount() {
+        return result.actionCount;
+    }
+
+    public long getTotalMinutes(int action) {
+        if (action >= result.actionCount) {
+            return 0;
+        }
+        long slots = 0;
+        for (int weekday = 0; weekday < WEEKDAYS; weekday++) {
+            slots += result.weekdaySlots[action * WEEKDAYS + weekday];
+        }
+        return slots * minutesPerSlot;
+    }
+
+    public int getSlotDays(int action, int slot) {
+        int[] slots = action < result.actionCount ? result.heatmap[action] : null;
+        return slots != null ? slots[slot] : 0;
+    }
+
+    public double getWeekdayAverageMinutes(int action, DayOfWeek weekday) {
+        int days = result.weekdayDays[weekday.ordinal()];
+        if (days == 0 || action >= result.actionCount) {
+            return 0;
+        }
+        return (double) result.weekdaySlots[action * WEEKDAYS + weekday.ordinal()] * minutesPerSlot / days;
+    }
+
+    public int getLongestStreak(int action) {
+        return action < result.actionCount ? result.longest[action] : 0;
+    }
+
+    public int getCurrentStreak(int action) {
+        return action < result.actionCount ? result.suffix[action] : 0;
+    }
+
+    private static class ChunkTask extends RecursiveTask<Chunk> {
+        private static final long serialVersionUID = 1L;
+
+        private final LocalDate from;
+        private final int first;
+        private final int days;
+        private final int slotsPerDay;
+        private final DaySource source;
+
+        ChunkTask(LocalDate from, int first, int days, int slotsPerDay, DaySource source) {
+            this.from = from;
+            this.first = first;
+            this.days = days;
+            this.slotsPerDay = slotsPerDay;
+            this.source = source;
+        }
+
+        @Override
+        protected Chunk compute() {
+            if (days <= CHUNK_DAYS) {
+                short[] buffer = new short[days * slotsPerDay];
+                LocalDate start = from.plusDays(first);
+                source.readDays(start, days, buffer);
+                return Chunk.of(start, days, slotsPerDay, buffer);
+            }
+
+            int half = days / 2;
+            ChunkTask left = new ChunkTask(from, first, half, slotsPerDay, source);
+            ChunkTask right = new ChunkTask(from, first + half, days - half, slotsPerDay, source);
+            left.fork();
+            Chunk rightResult = right.compute();
+            return left.join().merge(rightResult);
+        }
+    }
+
+    private static class Chunk {
+        private final int days;
+        private final int slotsPerDay;
+        private final int[] weekdayDays = new int[WEEKDAYS];
+        private int actionCount;
+        private int[][] heatmap = new int[0][];
+        private long[] weekdaySlots = new long[0];
+        private int[] prefix = new int[0];
+        private int[] suffix = new int[0];
+        private int[] longest = new int[0];
+
+        private Chunk(int days, int slotsPerDay) {
+            this.days = days;
+            this.slotsPerDay = slotsPerDay;
+        }
+
+        static Chunk of(LocalDate start, int days, int slotsPerDay, short[] buffer) {
+            Chunk chunk = new Chunk(days, slotsPerDay);
+            int[] seen = new int[0];
+            int weekday = start.getDayOfWeek().ordinal();
+
+            for (int day = 0; day < days; day++) {
+                int stamp = day + 1;
+                int base = day * slotsPerDay;
+                for (int slot = 0; slot < slotsPerDay; slot++) {
+                    int action = buffer[base + slot];
+                    if (action >= chunk.actionCount) {
+                        chunk.ensureActions(action + 1);
+                        seen = Arrays.copyOf(seen, chunk.actionCount);
+                    }
+
+                    int[] slots = chunk.heatmap[action];
+                    if (slots == null) {
+                        slots = chunk.heatmap[action] = new int[slotsPerDay];
+                    }
+                    slots[slot]++;
+                    chunk.weekdaySlots[action * WEEKDAYS + weekday]++;
+                    seen[action] = stamp;
+                }
+
+                chunk.weekdayDays[weekday]++;
+                weekday = (weekday + 1) % WEEKDAYS;
+                for (int action = 0; action < chunk.actionCount; action++) {
+                    if (seen[action] == stamp) {
+                        chunk.suffix[action]++;
+                        chunk.longest[action] = Math.max(chunk.longest[action], chunk.suffix[action]);
+                        if (chunk.prefix[action] == day) {
+                            chunk.prefix[action]++;
+                        }
+                    } else {
+                        chunk.suffix[action] = 0;
+                    }
+                }
+            }
+            return chunk;
+        }
+
+        private void ensureActions(int count) {
+            if (count <= actionCount) {
+                return;
+            }
+            heatmap = Arrays.copyOf(heatmap, count);
+            weekdaySlots = Arrays.copyOf(weekdaySlots, count * WEEKDAYS);
+            prefix = Arrays.copyOf(prefix, count);
+            suffix = Arrays.copyOf(suffix, count);
+            longest = Arrays.copyOf(longest, count);
+            actionCount = count;
+        }
+
+        Chunk merge(Chunk right) {
+            Chunk merged = new Chunk(days + right.days, slotsPerDay);
+            merged.ensureActions(Math.max(actionCount, right.actionCount));
+            for (int weekday = 0; weekday < WEEKDAYS; weekday++) {
+                merged.weekdayDays[weekday] = weekdayDays[weekday] + right.weekdayDays[weekday];
+            }
+
+            for (int action = 0; action < merged.actionCount; action++) {
+                int[] leftSlots = action < actionCount ? heatmap[action] : null;
+                int[] rightSlots = action < right.actionCount ? right.heatmap[action] : null;
+                if (leftSlots == null || rightSlots == null) {
+                    merged.heatmap[action] = leftSlots != null ? leftSlots : rightSlots;
+                } else {
+                    for (int slot = 0; slot < slotsPerDay; slot++) {
+                        leftSlots[slot] += rightSlots[slot];
+                    }
+                    merged.heatmap[action] = leftSlots;
+                }
+
+                for (int weekday = 0; weekday < WEEKDAYS; weekday++) {
+                    int index = action * WEEKDAYS + weekday;
+                    merged.weekdaySlots[index] = (action < actionCount ? weekdaySlots[index] : 0)
+                            + (action < right.actionCount ? right.weekdaySlots[index] : 0);
+                }
+
+                int leftPrefix = action < actionCount ? prefix[action] : 0;
+                int leftSuffix = action < actionCount ? suffix[action] : 0;
+                int leftLongest = action < actionCount ? longest[action] : 0;
+                int rightPrefix = action < right.actionCount ? right.prefix[action] : 0;
+                int rightSuffix = action < right.actionCount ? right.suffix[action] : 0;
+                int rightLongest = action < right.actionCount ? right.longest[action] : 0;
+
+                merged.prefix[action] = leftPrefix == days ? days + rightPrefix : leftPrefix;
+                merged.suffix[action] = rightSuffix == right.days ? right.days + leftSuffix : rightSuffix;
+                merged.longest[action] = Math.max(Math.max(leftLongest, rightLongest), leftSuffix + rightPrefix);
+            }
+            return merged;
+        }
+    }
+}
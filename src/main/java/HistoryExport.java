@@ -0,0 +1,303 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+
+public class HistoryExport implements Closeable {
+    private static final int MAGIC = 0x54544152;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 24;
+    private static final int TRAILER_SIZE = 12;
+    private static final int BLOCK_DAYS = 64;
+
+    public interface DaySource {
+        void readDay(LocalDate date, short[] day);
+    }
+
+    private final Path file;
+    private final FileChannel channel;
+    private final int slotsPerDay;
+    private final LocalDate firstDay;
+    private final int dayCount;
+    private final int blockDays;
+    private final long[] blockOffsets;
+    private final int[] codeToIndex;
+
+    private HistoryExport(Path file, FileChannel channel, int slotsPerDay, LocalDate firstDay, int dayCount,
+                           int blockDays, long[] blockOffsets, int[] codeToIndex) {
+        this.file = file;
+        this.channel = channel;
+        this.slotsPerDay = slotsPerDay;
+        this.firstDay = firstDay;
+        this.dayCount = dayCount;
+        this.blockDays = blockDays;
+        this.blockOffsets = blockOffsets;
+        this.codeToIndex = codeToIndex;
+    }
+
+    public static void write(Path file, LocalDate from, LocalDate to, int slotsPerDay, DaySource source)
+            throws IOException {
+        int dayCount = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        if (dayCount <= 0) {
+            throw new IllegalArgumentException("Начальная дата позже конечной");
+        }
+
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        List<String> dictionary = new ArrayList<>();
+        int[] indexToCode = new int[0];
+        long[] blockOffsets = new long[(dayCount + BLOCK_DAYS - 1) / BLOCK_DAYS];
+
+        try (CountingOutput counter = new CountingOutput(new BufferedOutputStream(Files.newOutputStream(tmp)));
+             DataOutputStream out = new DataOutputStream(counter)) {
+            out.writeInt(MAGIC);
+            out.writeShort(VERSION);
+            out.writeShort(slotsPerDay);
+            out.writeLong(from.toEpochDay());
+            out.writeInt(dayCount);
+            out.writeShort(BLOCK_DAYS);
+            out.writeShort(0);
+
+            short[] day = new short[slotsPerDay];
+            ByteArrayOutputStream runs = new ByteArrayOutputStream(64);
+            ByteArrayOutputStream pattern = new ByteArrayOutputStream(64);
+            ByteArrayOutputStream patterns = new ByteArrayOutputStream();
+            Map<ByteBuffer, Integer> patternIds = new HashMap<>();
+            int[] references = new int[BLOCK_DAYS];
+
+            for (int block = 0; block < blockOffsets.length; block++) {
+                int first = block * BLOCK_DAYS;
+                int days = Math.min(BLOCK_DAYS, dayCount - first);
+                patterns.reset();
+                patternIds.clear();
+
+                for (int i = 0; i < days; i++) {
+                    source.readDay(from.plusDays(first + i), day);
+                    runs.reset();
+                    pattern.reset();
+                    int runCount = 0;
+                    int start = 0;
+                    for (int slot = 1; slot <= slotsPerDay; slot++) {
+                        if (slot < slotsPerDay && day[slot] == day[start]) {
+                            continue;
+                        }
+                        int index = day[start];
+                        if (index >= indexToCode.length) {
+                            int oldLength = indexToCode.length;
+                            indexToCode = Arrays.copyOf(indexToCode, Math.max(index + 1, oldLength * 2));
+                            Arrays.fill(indexToCode, oldLength, indexToCode.length, -1);
+                        }
+                        if (indexToCode[index] < 0) {
+                            indexToCode[index] = dictionary.size();
+                            dictionary.add(Action.byIndex(index).getId());
+                        }
+                        writeVarint(runs, indexToCode[index]);
+                        writeVarint(runs, slot - start);
+                        runCount++;
+                        start = slot;
+                    }
+                    writeVarint(pattern, runCount);
+                    runs.writeTo(pattern);
+
+                    byte[] encoded = pattern.toByteArray();
+                    Integer id = patternIds.putIfAbsent(ByteBuffer.wrap(encoded), patternIds.size());
+                    if (id == null) {
+                        id = patternIds.size() - 1;
+                        patterns.write(encoded, 0, encoded.length);
+                    }
+                    references[i] = id;
+                }
+
+                blockOffsets[block] = counter.count;
+                ByteArrayOutputStream head = new ByteArrayOutputStream(days + 4);
+                writeVarint(head, patternIds.size());
+                for (int i = 0; i < days; i++) {
+                    writeVarint(head, references[i]);
+                }
+                head.writeTo(out);
+                patterns.writeTo(out);
+            }
+
+            long footer = counter.count;
+            out.writeInt(dictionary.size());
+            for (String id : dictionary) {
+                out.writeUTF(id);
+            }
+            for (long offset : blockOffsets) {
+                out.writeLong(offset);
+            }
+            out.writeLong(footer);
+            out.writeInt(MAGIC);
+        }
+
+        try (FileChannel written = FileChannel.open(tmp, StandardOpenOption.WRITE)) {
+            written.force(true);
+        }
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    public static HistoryExport open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            long size = channel.size();
+            if (size < HEADER_SIZE + TRAILER_SIZE) {
+                throw new IOException("файл не является экспортом истории: " + file);
+            }
+            ByteBuffer header = read(channel, 0, HEADER_SIZE);
+            ByteBuffer trailer = read(channel, size - TRAILER_SIZE, TRAILER_SIZE);
+            if (header.getInt() != MAGIC || trailer.getInt(8) != MAGIC) {
+                throw new IOException("файл не является экспортом истории: " + file);
+            }
+            if (header.getShort() != VERSION) {
+                throw new IOException("неподдерживаемая версия экспорта истории: " + file);
+            }
+
+            int slotsPerDay = header.getShort();
+            LocalDate firstDay = LocalDate.ofEpochDay(header.getLong());
+            int dayCount = header.getInt();
+            int blockDays = header.getShort();
+            long footer = trailer.getLong(0);
+
+            ByteBuffer index = read(channel, footer, (int) (size - TRAILER_SIZE - footer));
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(index.array()));
+            int[] codeToIndex = new int[in.readInt()];
+            for (int code = 0; code < codeToIndex.length; code++) {
+                String actionId = in.readUTF();
+                Action action = Action.getAction(actionId);
+                if (action == null) {
+                    throw new IOException("неизвестное действие " + actionId + " в экспорте истории " + file);
+                }
+                codeToIndex[code] = action.getIndex();
+            }
+            int blockCount = (dayCount + blockDays - 1) / blockDays;
+            long[] blockOffsets = new long[blockCount + 1];
+            for (int block = 0; block < blockCount; block++) {
+                blockOffsets[block] = in.readLong();
+            }
+            blockOffsets[blockCount] = footer;
+
+            return new HistoryExport(file, channel, slotsPerDay, firstDay, dayCount, blockDays,
+                    blockOffsets, codeToIndex);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    public LocalDate getFirstDay() {
+        return firstDay;
+    }
+
+    public LocalDate getLastDay() {
+        return firstDay.plusDays(dayCount - 1);
+    }
+
+    public int getDayCount() {
+        return dayCount;
+    }
+
+    public long getSize() throws IOException {
+        return channel.size();
+    }
+
+    public void readDay(LocalDate date, short[] day) throws IOException {
+        long dayIndex = date.toEpochDay() - firstDay.toEpochDay();
+        if (dayIndex < 0 || dayIndex >= dayCount) {
+            throw new IllegalArgumentException("Дата вне экспорта: " + date);
+        }
+
+        int block = (int) (dayIndex / blockDays);
+        ByteBuffer data = read(channel, blockOffsets[block], (int) (blockOffsets[block + 1] - blockOffsets[block]));
+        readVarint(data);
+        int position = (int) (dayIndex % blockDays);
+        for (int i = 0; i < position; i++) {
+            readVarint(data);
+        }
+        int pattern = readVarint(data);
+        int days = Math.min(blockDays, dayCount - block * blockDays);
+        for (int i = position + 1; i < days; i++) {
+            readVarint(data);
+        }
+
+        for (int i = 0; i < pattern; i++) {
+            int runs = readVarint(data);
+            for (int run = 0; run < runs * 2; run++) {
+                readVarint(data);
+            }
+        }
+
+        int runs = readVarint(data);
+        int slot = 0;
+        for (int run = 0; run < runs; run++) {
+            int index = codeToIndex[readVarint(data)];
+            int length = readVarint(data);
+            if (slot + length > slotsPerDay) {
+                throw new IOException("повреждён экспорт истории " + file);
+            }
+            Arrays.fill(day, slot, slot + length, (short) index);
+            slot += length;
+        }
+        if (slot != slotsPerDay) {
+            throw new IOException("повреждён экспорт истории " + file);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private static ByteBuffer read(FileChannel channel, long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("неожиданный конец экспорта истории");
+            }
+        }
+        return buffer.flip();
+    }
+
+    private static void writeVarint(ByteArrayOutputStream out, int value) {
+        while ((value & ~0x7F) != 0) {
+            out.write((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        out.write(value);
+    }
+
+    private static int readVarint(ByteBuffer in) {
+        int value = 0;
+        for (int shift = 0; ; shift += 7) {
+            byte b = in.get();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static class CountingOutput extends FilterOutputStream {
+        private long count;
+
+        CountingOutput(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,185 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.*;
+
+public class HistoryJournal implements Closeable {
+    private static final int MAGIC = 0x54544a4c;
+    private static final int VERSION = 2;
+    private static final int RANGE_VERSION = 1;
+    private static final int GROUP_MARKER = -1;
+    private static final int HEADER_SIZE = 8;
+    private static final int RECORD_SIZE = 10;
+    private static final int LEGACY_RECORD_SIZE = 8;
+    private static final int BATCH_RECORDS = 256;
+
+    public enum SyncPolicy {
+        EVERY_WRITE("каждая запись"),
+        BATCH("пакетами по " + BATCH_RECORDS),
+        INTERVAL("по таймеру");
+
+        private final String title;
+
+        SyncPolicy(String title) {
+            this.title = title;
+        }
+
+        @Override
+        public String toString() {
+            return title;
+        }
+    }
+
+    public interface RecordConsumer {
+        void accept(int dayIndex, int fromSlot, int toSlot, short code) throws IOException;
+    }
+
+    private final Path file;
+    private final ByteBuffer pending = ByteBuffer.allocateDirect(BATCH_RECORDS * RECORD_SIZE);
+    private FileChannel channel;
+    private SyncPolicy policy;
+    private long recordCount;
+    private boolean dirty;
+
+    private HistoryJournal(Path file, SyncPolicy policy) {
+        this.file = file;
+        this.policy = policy;
+    }
+
+    public static HistoryJournal open(Path file, SyncPolicy policy) throws IOException {
+        HistoryJournal journal = new HistoryJournal(file, policy);
+        if (!Files.exists(file)) {
+            journal.writeEmpty(file);
+        }
+        journal.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        return journal;
+    }
+
+    public synchronized void replay(RecordConsumer consumer) throws IOException {
+        long size = channel.size();
+        ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+        channel.read(header, 0);
+        if (size < HEADER_SIZE || header.getInt(0) != MAGIC || header.getInt(4) > VERSION) {
+            throw new IOException("повреждён журнал истории " + file);
+        }
+
+        boolean legacy = header.getInt(4) < RANGE_VERSION;
+        int recordSize = legacy ? LEGACY_RECORD_SIZE : RECORD_SIZE;
+        long complete = (size - HEADER_SIZE) / recordSize;
+        ByteBuffer records = ByteBuffer.allocate(BATCH_RECORDS * recordSize);
+        long position = HEADER_SIZE;
+        long end = HEADER_SIZE + complete * recordSize;
+
+        while (position < end) {
+            records.clear().limit((int) Math.min(records.capacity(), end - position));
+            while (records.hasRemaining()) {
+                if (channel.read(records, position + records.position()) < 0) {
+                    throw new IOException("неожиданный конец журнала " + file);
+                }
+            }
+            records.flip();
+            while (records.hasRemaining()) {
+                long at = position + records.position();
+                int dayIndex = records.getInt();
+                int fromSlot = records.getShort();
+                int toSlot = legacy ? fromSlot : records.getShort();
+                short code = records.getShort();
+                if (dayIndex == GROUP_MARKER) {
+                    long groupSize = (fromSlot & 0xFFFFL) << 16 | toSlot & 0xFFFFL;
+                    if (at + (groupSize + 1) * recordSize > end) {
+                        end = at;
+                        break;
+                    }
+                    continue;
+                }
+                consumer.accept(dayIndex, fromSlot, toSlot, code);
+            }
+            position += records.limit();
+        }
+
+        recordCount = (end - HEADER_SIZE) / recordSize;
+        channel.position(end);
+        channel.truncate(end);
+    }
+
+    public synchronized void beginGroup(int records) throws IOException {
+        append(GROUP_MARKER, records >>> 16, records, (short) 0);
+    }
+
+    public synchronized void append(int dayIndex, int fromSlot, int toSlot, short code) throws IOException {
+        pending.putInt(dayIndex).putShort((short) fromSlot).putShort((short) toSlot).putShort(code);
+        recordCount++;
+
+        if (policy == SyncPolicy.EVERY_WRITE) {
+            sync();
+        } else if (!pending.hasRemaining()) {
+            write();
+            if (policy == SyncPolicy.BATCH) {
+                channel.force(false);
+                dirty = false;
+            }
+        }
+    }
+
+    public synchronized void sync() throws IOException {
+        write();
+        if (dirty) {
+            channel.force(false);
+            dirty = false;
+        }
+    }
+
+    private void write() throws IOException {
+        pending.flip();
+        while (pending.hasRemaining()) {
+            channel.write(pending);
+            dirty = true;
+        }
+        pending.clear();
+    }
+
+    public synchronized void reset() throws IOException {
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        writeEmpty(tmp);
+        channel.close();
+        Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+
+        channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        channel.position(HEADER_SIZE);
+        pending.clear();
+        recordCount = 0;
+        dirty = false;
+    }
+
+    private void writeEmpty(Path target) throws IOException {
+        try (FileChannel out = FileChannel.open(target, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION);
+            header.flip();
+            while (header.hasRemaining()) {
+                out.write(header);
+            }
+            out.force(true);
+        }
+    }
+
+    public synchronized long getRecordCount() {
+        return recordCount;
+    }
+
+    public synchronized SyncPolicy getPolicy() {
+        return policy;
+    }
+
+    public synchronized void setPolicy(SyncPolicy policy) throws IOException {
+        sync();
+        this.policy = policy;
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        sync();
+        channel.close();
+    }
+}
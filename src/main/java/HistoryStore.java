@@ -0,0 +1,596 @@
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.time.LocalDate;
+import java.util.*;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+public class HistoryStore implements Closeable {
+    private static final int MAGIC = 0x54544853;
+    private static final int VERSION = 1;
+    private static final int HEADER_SIZE = 16;
+    private static final int DAYS_PER_CHUNK = 366;
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final LocalDate FIRST_DAY = LocalDate.of(2000, 1, 1);
+    private static final long SYNC_INTERVAL_MILLIS = 1000;
+    private static final long COMPACT_INTERVAL_MILLIS = 30_000;
+    private static final long COMPACT_THRESHOLD_RECORDS = 8192;
+    public static final String DAY_CACHE_PROPERTY = "tracker.dayCache";
+    private static final int DAY_CACHE_DAYS = Integer.getInteger(DAY_CACHE_PROPERTY, 64);
+    private static final ScheduledExecutorService MAINTENANCE = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "history-compactor");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final FileChannel channel;
+    private final Path dictionaryFile;
+    private final HistoryJournal journal;
+    private final int slotsPerDay;
+    private final int recordSize;
+    private final List<String> dictionary = new CopyOnWriteArrayList<>();
+    private final Map<String, Integer> codes = new HashMap<>();
+    private short[] indexToCode = new short[0];
+    private int[] codeToIndex = new int[0];
+    private volatile MappedByteBuffer buffer;
+    private final BitSet dirtyDays = new BitSet();
+    private int capacityDays;
+    private long lastCompaction;
+    private HistoryTotals totals;
+    private ScheduledFuture<?> maintenance;
+    private final DayCache cache = new DayCache(DAY_CACHE_DAYS);
+    private long modifications;
+
+    private HistoryStore(FileChannel channel, Path dictionaryFile, HistoryJournal journal, int slotsPerDay) {
+        this.channel = channel;
+        this.dictionaryFile = dictionaryFile;
+        this.journal = journal;
+        this.slotsPerDay = slotsPerDay;
+        this.recordSize = slotsPerDay * Short.BYTES;
+    }
+
+    public static HistoryStore open(Path dataFile, Path dictionaryFile, Path journalFile, int slotsPerDay,
+                                    HistoryJournal.SyncPolicy syncPolicy) throws IOException {
+        int storedSlotsPerDay = readSlotsPerDay(dataFile);
+        if (storedSlotsPerDay > 0 && storedSlotsPerDay != slotsPerDay) {
+            resample(dataFile, dictionaryFile, journalFile, storedSlotsPerDay, slotsPerDay, syncPolicy);
+        }
+
+        FileChannel channel = FileChannel.open(dataFile,
+                StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        HistoryJournal journal = null;
+        HistoryStore store = null;
+        try {
+            journal = HistoryJournal.open(journalFile, syncPolicy);
+            store = new HistoryStore(channel, dictionaryFile, journal, slotsPerDay);
+            store.init();
+            store.recover();
+            store.startMaintenance();
+            return store;
+        } catch (IOException | RuntimeException e) {
+            if (store != null) {
+                store.cache.close();
+            }
+            if (journal != null) {
+                journal.close();
+            }
+            channel.close();
+            throw e;
+        }
+    }
+
+    private void init() throws IOException {
+        long size = channel.size();
+
+        if (size == 0) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).putInt(MAGIC).putInt(VERSION).putInt(slotsPerDay);
+            header.clear();
+            while (header.hasRemaining()) {
+                channel.write(header, header.position());
+            }
+            channel.force(true);
+            capacityDays = DAYS_PER_CHUNK;
+            map();
+        } else {
+            capacityDays = (int) ((size - HEADER_SIZE) / recordSize);
+            map();
+            if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != VERSION) {
+                throw new IOException("неизвестный формат файла истории");
+            }
+            if (buffer.getInt(8) != slotsPerDay) {
+                throw new IOException("файл истории создан для " + buffer.getInt(8) + " слотов в сутках");
+            }
+        }
+
+        dictionary.add(Action.NULL.getId());
+        codes.put(Action.NULL.getId(), 0);
+
+        if (Files.exists(dictionaryFile)) {
+            for (String actionId : Files.readAllLines(dictionaryFile, StandardCharsets.UTF_8)) {
+                if (!actionId.isEmpty() && !codes.containsKey(actionId)) {
+                    codes.put(actionId, dictionary.size());
+                    dictionary.add(actionId);
+                }
+            }
+        }
+    }
+
+    private static int readSlotsPerDay(Path dataFile) throws IOException {
+        if (!Files.exists(dataFile) || Files.size(dataFile) < HEADER_SIZE) {
+            return 0;
+        }
+
+        try (FileChannel channel = FileChannel.open(dataFile, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+            channel.read(header, 0);
+            return header.getInt(0) == MAGIC ? header.getInt(8) : 0;
+        }
+    }
+
+    private static void resample(Path dataFile, Path dictionaryFile, Path journalFile, int fromSlots, int toSlots,
+                                 HistoryJournal.SyncPolicy syncPolicy) throws IOException {
+        Path target = dataFile.resolveSibling(dataFile.getFileName() + ".resample");
+        Path targetJournal = journalFile.resolveSibling(journalFile.getFileName() + ".resample");
+        Files.deleteIfExists(target);
+        Files.deleteIfExists(targetJournal);
+
+        try (HistoryStore source = open(dataFile, dictionaryFile, journalFile, fromSlots, syncPolicy);
+             HistoryStore resampled = open(target, dictionaryFile, targetJournal, toSlots, syncPolicy)) {
+            source.copyResampledTo(resampled);
+        }
+
+        Files.delete(targetJournal);
+        Files.move(target, dataFile, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        System.out.println("История переведена с " + fromSlots + " на " + toSlots + " слотов в сутках"
+                + (toSlots < fromSlots ? " (слот получает действие, занимающее большую часть его минут)" : ""));
+    }
+
+    private synchronized void copyResampledTo(HistoryStore target) throws IOException {
+        int sourceMinutes = MINUTES_PER_DAY / slotsPerDay;
+        int targetMinutes = MINUTES_PER_DAY / target.slotsPerDay;
+        short[] candidates = new short[targetMinutes / sourceMinutes + 2];
+        int[] minutes = new int[candidates.length];
+
+        for (int dayIndex = 0; dayIndex < capacityDays; dayIndex++) {
+            int base = offset(dayIndex, 0);
+            boolean empty = true;
+            for (int slot = 0; slot < slotsPerDay && empty; slot++) {
+                empty = buffer.getShort(base + slot * Short.BYTES) == 0;
+            }
+            if (empty) {
+                continue;
+            }
+
+            target.ensureCapacity(dayIndex);
+            for (int slot = 0; slot < target.slotsPerDay; slot++) {
+                int start = slot * targetMinutes;
+                int end = start + targetMinutes;
+                int count = 0;
+                int best = 0;
+
+                for (int sourceSlot = start / sourceMinutes; sourceSlot * sourceMinutes < end; sourceSlot++) {
+                    short code = buffer.getShort(base + sourceSlot * Short.BYTES);
+                    int overlap = Math.min(end, (sourceSlot + 1) * sourceMinutes) - Math.max(start, sourceSlot * sourceMinutes);
+                    int candidate = 0;
+                    while (candidate < count && candidates[candidate] != code) {
+                        candidate++;
+                    }
+                    if (candidate == count) {
+                        candidates[count] = code;
+                        minutes[count++] = 0;
+                    }
+                    minutes[candidate] += overlap;
+                    if (minutes[candidate] > minutes[best]) {
+                        best = candidate;
+                    }
+                }
+                target.buffer.putShort(target.offset(dayIndex, slot), candidates[best]);
+            }
+            target.dirtyDays.set(dayIndex);
+        }
+        target.checkpoint();
+    }
+
+    private void recover() throws IOException {
+        journal.replay((dayIndex, fromSlot, toSlot, code) -> {
+            if (dayIndex >= 0 && fromSlot >= 0 && fromSlot <= toSlot && toSlot < slotsPerDay) {
+                ensureCapacity(dayIndex);
+                fill(dayIndex, fromSlot, toSlot, code);
+            }
+        });
+        checkpoint();
+        lastCompaction = System.currentTimeMillis();
+    }
+
+    private void startMaintenance() {
+        maintenance = MAINTENANCE.scheduleWithFixedDelay(this::runMaintenance,
+                SYNC_INTERVAL_MILLIS, SYNC_INTERVAL_MILLIS, TimeUnit.MILLISECONDS);
+    }
+
+    private void runMaintenance() {
+        try {
+            if (journal.getPolicy() == HistoryJournal.SyncPolicy.INTERVAL) {
+                journal.sync();
+            }
+            if (journal.getRecordCount() >= COMPACT_THRESHOLD_RECORDS
+                    || System.currentTimeMillis() - lastCompaction >= COMPACT_INTERVAL_MILLIS) {
+                compact();
+            }
+        } catch (IOException e) {
+            System.out.println("Ошибка обслуживания журнала истории: " + e.getMessage());
+        }
+    }
+
+    public synchronized void compact() throws IOException {
+        if (journal.getRecordCount() > 0 || !dirtyDays.isEmpty()) {
+            checkpoint();
+        }
+        lastCompaction = System.currentTimeMillis();
+    }
+
+    private void checkpoint() throws IOException {
+        journal.sync();
+        ByteBuffer contents = buffer.duplicate();
+        for (int dayIndex = dirtyDays.nextSetBit(0); dayIndex >= 0; dayIndex = dirtyDays.nextSetBit(dayIndex + 1)) {
+            int base = offset(dayIndex, 0);
+            contents.limit(base + recordSize).position(base);
+            while (contents.hasRemaining()) {
+                channel.write(contents, contents.position());
+            }
+        }
+        channel.force(false);
+        journal.reset();
+        dirtyDays.clear();
+        map();
+    }
+
+    public HistoryJournal.SyncPolicy getSyncPolicy() {
+        return journal.getPolicy();
+    }
+
+    public void setSyncPolicy(HistoryJournal.SyncPolicy policy) throws IOException {
+        journal.setPolicy(policy);
+    }
+
+    private void map() throws IOException {
+        buffer = mapping();
+    }
+
+    private MappedByteBuffer mapping() throws IOException {
+        return channel.map(FileChannel.MapMode.PRIVATE, 0, HEADER_SIZE + (long) capacityDays * recordSize);
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    public synchronized int getSlot(LocalDate date, int slot) {
+        validateSlot(slot);
+        int dayIndex = dayIndex(date);
+        if (dayIndex >= capacityDays) {
+            return Action.NULL.getIndex();
+        }
+        return decode(buffer.getShort(offset(dayIndex, slot)));
+    }
+
+    public void setSlot(LocalDate date, int slot, int actionIndex) throws IOException {
+        setRange(date, slot, slot, actionIndex);
+    }
+
+    public synchronized void setRange(LocalDate date, int fromSlot, int toSlot, int actionIndex) throws IOException {
+        validateSlot(fromSlot);
+        validateSlot(toSlot);
+        if (fromSlot > toSlot) {
+            throw new IllegalArgumentException("Начальный слот больше конечного");
+        }
+
+        int dayIndex = dayIndex(date);
+        short code = encode(actionIndex);
+        journal.append(dayIndex, fromSlot, toSlot, code);
+        apply(dayIndex, fromSlot, toSlot, code);
+        cache.update(date, day -> day.withRange(fromSlot, toSlot, actionIndex));
+    }
+
+    public synchronized void setRanges(List<SlotChange> changes) throws IOException {
+        int[] dayIndexes = new int[changes.size()];
+        short[] codes = new short[changes.size()];
+        for (int i = 0; i < changes.size(); i++) {
+            SlotChange change = changes.get(i);
+            validateSlot(change.getFrom());
+            validateSlot(change.getTo());
+            if (change.getFrom() > change.getTo()) {
+                throw new IllegalArgumentException("Начальный слот больше конечного");
+            }
+            dayIndexes[i] = dayIndex(change.getDate());
+            codes[i] = encode(change.getActionIndex());
+        }
+
+        journal.beginGroup(changes.size());
+        for (int i = 0; i < changes.size(); i++) {
+            journal.append(dayIndexes[i], changes.get(i).getFrom(), changes.get(i).getTo(), codes[i]);
+        }
+        Map<LocalDate, List<SlotChange>> byDay = new LinkedHashMap<>();
+        for (int i = 0; i < changes.size(); i++) {
+            SlotChange change = changes.get(i);
+            apply(dayIndexes[i], change.getFrom(), change.getTo(), codes[i]);
+            byDay.computeIfAbsent(change.getDate(), date -> new ArrayList<>()).add(change);
+        }
+        byDay.forEach((date, dayChanges) -> cache.update(date, day -> {
+            for (SlotChange change : dayChanges) {
+                day = day.withRange(change.getFrom(), change.getTo(), change.getActionIndex());
+            }
+            return day;
+        }));
+    }
+
+    private void apply(int dayIndex, int fromSlot, int toSlot, short code) throws IOException {
+        ensureCapacity(dayIndex);
+        if (totals != null) {
+            updateTotals(dayIndex, fromSlot, toSlot, code);
+        }
+        fill(dayIndex, fromSlot, toSlot, code);
+        modifications++;
+    }
+
+    public void checkDate(LocalDate date) {
+        dayIndex(date);
+    }
+
+    private void updateTotals(int dayIndex, int fromSlot, int toSlot, short code) {
+        int base = offset(dayIndex, 0);
+        int runStart = fromSlot;
+        short runCode = buffer.getShort(base + fromSlot * Short.BYTES);
+
+        for (int slot = fromSlot + 1; slot <= toSlot + 1; slot++) {
+            short old = slot <= toSlot ? buffer.getShort(base + slot * Short.BYTES) : -1;
+            if (old != runCode) {
+                if (runCode > 0) {
+                    totals.add(runCode, dayIndex, -(slot - runStart));
+                }
+                runStart = slot;
+                runCode = old;
+            }
+        }
+        if (code > 0) {
+            totals.add(code, dayIndex, toSlot - fromSlot + 1);
+        }
+    }
+
+    public synchronized long getTotalSlots(int actionIndex, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начальная дата позже конечной");
+        }
+
+        int fromDay = dayIndex(from);
+        int toDay = dayIndex(to);
+        if (actionIndex == Action.NULL.getIndex()) {
+            long recorded = 0;
+            for (int code = 1; code < dictionary.size(); code++) {
+                recorded += totals().sum(code, fromDay, toDay);
+            }
+            return (toDay - fromDay + 1L) * slotsPerDay - recorded;
+        }
+
+        Integer code = codes.get(Action.byIndex(actionIndex).getId());
+        return code == null ? 0 : totals().sum(code, fromDay, toDay);
+    }
+
+    private HistoryTotals totals() {
+        if (totals != null) {
+            return totals;
+        }
+
+        totals = new HistoryTotals(capacityDays);
+        int[] counts = new int[dictionary.size()];
+        for (int dayIndex = 0; dayIndex < capacityDays; dayIndex++) {
+            int base = offset(dayIndex, 0);
+            for (int slot = 0; slot < slotsPerDay; slot++) {
+                int code = buffer.getShort(base + slot * Short.BYTES);
+                if (code > 0 && code < counts.length) {
+                    counts[code]++;
+                }
+            }
+            for (int code = 1; code < counts.length; code++) {
+                if (counts[code] > 0) {
+                    totals.add(code, dayIndex, counts[code]);
+                    counts[code] = 0;
+                }
+            }
+        }
+        return totals;
+    }
+
+    private void fill(int dayIndex, int fromSlot, int toSlot, short code) {
+        int base = offset(dayIndex, 0);
+        for (int slot = fromSlot; slot <= toSlot; slot++) {
+            buffer.putShort(base + slot * Short.BYTES, code);
+        }
+        dirtyDays.set(dayIndex);
+    }
+
+    public void readDay(LocalDate date, short[] day) {
+        DaySnapshot cached = cache.get(date);
+        if (cached != null) {
+            cached.copyTo(day);
+            return;
+        }
+        synchronized (this) {
+            decodeDay(date, day);
+            if (cache.getCapacity() > 0) {
+                cache.put(new DaySnapshot(date, day.length == slotsPerDay ? day : Arrays.copyOf(day, slotsPerDay),
+                        modifications));
+            }
+        }
+    }
+
+    public DaySnapshot getDay(LocalDate date) {
+        DaySnapshot day = cache.get(date);
+        if (day != null) {
+            return day;
+        }
+        synchronized (this) {
+            short[] slots = new short[slotsPerDay];
+            decodeDay(date, slots);
+            day = new DaySnapshot(date, slots, modifications);
+            cache.put(day);
+            return day;
+        }
+    }
+
+    public synchronized long getModificationCount() {
+        return modifications;
+    }
+
+    public DayCache getCache() {
+        return cache;
+    }
+
+    public void invalidateCache() {
+        cache.clear();
+    }
+
+    private void decodeDay(LocalDate date, short[] day) {
+        int dayIndex = dayIndex(date);
+
+        if (dayIndex >= capacityDays) {
+            Arrays.fill(day, 0, slotsPerDay, (short) Action.NULL.getIndex());
+            return;
+        }
+
+        int base = offset(dayIndex, 0);
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            day[slot] = (short) decode(buffer.getShort(base + slot * Short.BYTES));
+        }
+    }
+
+    public void readDays(LocalDate from, int count, short[] days) {
+        ByteBuffer view = buffer.duplicate();
+        int capacity = (view.capacity() - HEADER_SIZE) / recordSize;
+        int[] table = new int[dictionary.size()];
+        int firstDay = dayIndex(from);
+
+        for (int i = 0; i < count; i++) {
+            int dayIndex = firstDay + i;
+            int start = i * slotsPerDay;
+            if (dayIndex >= capacity) {
+                Arrays.fill(days, start, start + (count - i) * slotsPerDay, (short) Action.NULL.getIndex());
+                return;
+            }
+
+            int base = offset(dayIndex, 0);
+            for (int slot = 0; slot < slotsPerDay; slot++) {
+                days[start + slot] = (short) decode(view.getShort(base + slot * Short.BYTES), table);
+            }
+        }
+    }
+
+    public void flush() throws IOException {
+        journal.sync();
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        maintenance.cancel(false);
+        try {
+            compact();
+            journal.close();
+            channel.close();
+        } finally {
+            cache.close();
+        }
+    }
+
+    private int dayIndex(LocalDate date) {
+        long index = date.toEpochDay() - FIRST_DAY.toEpochDay();
+        if (index < 0 || index > Integer.MAX_VALUE / recordSize) {
+            throw new IllegalArgumentException("Дата вне поддерживаемого диапазона: " + date);
+        }
+        return (int) index;
+    }
+
+    private int offset(int dayIndex, int slot) {
+        return HEADER_SIZE + dayIndex * recordSize + slot * Short.BYTES;
+    }
+
+    private void validateSlot(int slot) {
+        if (slot < 0 || slot >= slotsPerDay) {
+            throw new IllegalArgumentException("ID должен быть в диапазоне 0-" + (slotsPerDay - 1));
+        }
+    }
+
+    private void ensureCapacity(int dayIndex) throws IOException {
+        if (dayIndex < capacityDays) {
+            return;
+        }
+        MappedByteBuffer previous = buffer;
+        capacityDays = (dayIndex / DAYS_PER_CHUNK + 1) * DAYS_PER_CHUNK;
+        MappedByteBuffer next = mapping();
+        for (int day = dirtyDays.nextSetBit(0); day >= 0; day = dirtyDays.nextSetBit(day + 1)) {
+            int base = offset(day, 0);
+            next.put(base, previous, base, recordSize);
+        }
+        buffer = next;
+    }
+
+    private int decode(short code) {
+        if (codeToIndex.length < dictionary.size()) {
+            codeToIndex = Arrays.copyOf(codeToIndex, dictionary.size());
+        }
+        return decode(code, codeToIndex);
+    }
+
+    private int decode(short code, int[] table) {
+        if (code <= 0 || code >= table.length) {
+            return Action.NULL.getIndex();
+        }
+
+        int index = table[code];
+        if (index > 0) {
+            return index;
+        }
+
+        Action action = Action.getAction(dictionary.get(code));
+        if (action == null) {
+            return Action.NULL.getIndex();
+        }
+        table[code] = action.getIndex();
+        return action.getIndex();
+    }
+
+    private short encode(int actionIndex) throws IOException {
+        if (actionIndex < indexToCode.length && indexToCode[actionIndex] > 0) {
+            return indexToCode[actionIndex];
+        }
+
+        Action action = Action.byIndex(actionIndex);
+        if (action == Action.NULL) {
+            return 0;
+        }
+
+        Integer code = codes.get(action.getId());
+        if (code == null) {
+            if (dictionary.size() > Short.MAX_VALUE) {
+                throw new IOException("превышено количество действий в истории");
+            }
+
+            Files.writeString(dictionaryFile, action.getId() + System.lineSeparator(), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND, StandardOpenOption.SYNC);
+            code = dictionary.size();
+            dictionary.add(action.getId());
+            codes.put(action.getId(), code);
+        }
+
+        if (actionIndex >= indexToCode.length) {
+            indexToCode = Arrays.copyOf(indexToCode, Math.max(actionIndex + 1, indexToCode.length * 2));
+        }
+        indexToCode[actionIndex] = code.shortValue();
+        return code.shortValue();
+    }
+}
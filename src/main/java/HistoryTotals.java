@@ -0,0 +1,59 @@
+import java.util.Arrays;
+
+public class HistoryTotals {
+    private long[][] trees = new long[0][];
+    private int size;
+
+    public HistoryTotals(int days) {
+        this.size = Integer.highestOneBit(Math.max(1, days - 1)) << 1;
+    }
+
+    public void add(int code, int dayIndex, long slots) {
+        if (slots == 0) {
+            return;
+        }
+        while (dayIndex >= size) {
+            grow();
+        }
+        if (code >= trees.length) {
+            trees = Arrays.copyOf(trees, Math.max(code + 1, trees.length * 2));
+        }
+        if (trees[code] == null) {
+            trees[code] = new long[size + 1];
+        }
+
+        long[] tree = trees[code];
+        for (int i = dayIndex + 1; i <= size; i += i & -i) {
+            tree[i] += slots;
+        }
+    }
+
+    public long sum(int code, int fromDay, int toDay) {
+        if (code >= trees.length || trees[code] == null || fromDay > toDay) {
+            return 0;
+        }
+        return prefix(trees[code], toDay + 1) - prefix(trees[code], fromDay);
+    }
+
+    private long prefix(long[] tree, int days) {
+        long total = 0;
+        for (int i = Math.min(days, size); i > 0; i -= i & -i) {
+            total += tree[i];
+        }
+        return total;
+    }
+
+    private void grow() {
+        int grown = size * 2;
+        for (int code = 0; code < trees.length; code++) {
+            long[] tree = trees[code];
+            if (tree != null) {
+                long total = prefix(tree, size);
+                tree = Arrays.copyOf(tree, grown + 1);
+                tree[grown] = total;
+                trees[code] = tree;
+            }
+        }
+        size = grown;
+    }
+}
@@ -0,0 +1,92 @@
+import java.util.Arrays;
+
+public class LabelStatistics {
+    private static final long[] EMPTY = new long[0];
+
+    private final int slotsPerDay;
+    private final int minutesPerSlot;
+    private final int words;
+    private long[][] columns = new long[0][];
+    private int position;
+
+    public LabelStatistics(int slotsPerDay, int minutesPerSlot, int days) {
+        this.slotsPerDay = slotsPerDay;
+        this.minutesPerSlot = minutesPerSlot;
+        this.words = (int) (((long) days * slotsPerDay + Long.SIZE - 1) / Long.SIZE);
+    }
+
+    public LabelStatistics accept(short[] day, long[] labels, int wordsPerSlot) {
+        for (int slot = 0; slot < slotsPerDay; slot++, position++) {
+            set(day[slot], position);
+            if (labels == null) {
+                continue;
+            }
+            for (int word = 0; word < wordsPerSlot; word++) {
+                long mask = labels[slot * wordsPerSlot + word];
+                while (mask != 0) {
+                    set(word * Long.SIZE + Long.numberOfTrailingZeros(mask), position);
+                    mask &= mask - 1;
+                }
+            }
+        }
+        return this;
+    }
+
+    private void set(int action, int position) {
+        if (action >= columns.length) {
+            columns = Arrays.copyOf(columns, Math.max(action + 1, columns.length * 2));
+        }
+        long[] column = columns[action];
+        if (column == null) {
+            column = columns[action] = new long[words];
+        }
+        column[position >>> 6] |= 1L << position;
+    }
+
+    public int getActionCount() {
+        return columns.length;
+    }
+
+    public long getTotalMinutes(int action) {
+        long slots = 0;
+        for (long word : column(action)) {
+            slots += Long.bitCount(word);
+        }
+        return slots * minutesPerSlot;
+    }
+
+    public long getOverlapMinutes(int first, int second) {
+        long[] a = column(first);
+        long[] b = column(second);
+        long slots = 0;
+        for (int word = 0; word < Math.min(a.length, b.length); word++) {
+            slots += Long.bitCount(a[word] & b[word]);
+        }
+        return slots * minutesPerSlot;
+    }
+
+    public long getUnionMinutes(int first, int second) {
+        long[] a = column(first);
+        long[] b = column(second);
+        long slots = 0;
+        for (int word = 0; word < Math.max(a.length, b.length); word++) {
+            slots += Long.bitCount((word < a.length ? a[word] : 0) | (word < b.length ? b[word] : 0));
+        }
+        return slots * minutesPerSlot;
+    }
+
+    public int getIntervalCount(int action) {
+        long carry = 0;
+        int intervals = 0;
+        for (long word : column(action)) {
+            intervals += Long.bitCount(word & ~(word << 1 | carry));
+            carry = word >>> 63;
+        }
+        return intervals;
+    }
+
+    private long[] column(int action) {
+        long[] column = action < columns.length ? columns[action] : null;
+        return column != null ? column : EMPTY;
+    }
+}
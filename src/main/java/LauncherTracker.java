@@ -1,6 +1,11 @@
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.List;
 import java.util.Scanner;
 
 public class LauncherTracker {
+    private static final int SUGGESTION_LIMIT = 10;
+
     private final TrackerTime trackerTime;
     private boolean isWorking;
     private final Scanner scanner;
@@ -21,11 +26,19 @@ public class LauncherTracker {
                 5. Загрузить список учёта
                 6. Показать статистику времени
                 7. Настройки программы
-                8. Выйти
+                8. Выбрать дату
+                9. Итоги за период
+                10. Экспорт отчёта
+                11. Экспорт истории в сжатый файл
+                12. Аналитика за период
+                13. Отмена и история правок
+                14. Совмещённые действия
+                0. Выйти
                 """);
     }
 
     private void handleUserInput() {
+        trackerTime.printNotices();
         System.out.print("Выберите действие: ");
         String response = scanner.nextLine().trim();
 
@@ -37,7 +50,14 @@ public class LauncherTracker {
             case "5" -> loadList();
             case "6" -> showAnalysis();
             case "7" -> showSettings();
-            case "8" -> exit();
+            case "8" -> selectDate();
+            case "9" -> showTotals();
+            case "10" -> exportReport();
+            case "11" -> exportHistory();
+            case "12" -> showAnalytics();
+            case "13" -> showEdits();
+            case "14" -> showLabels();
+            case "0" -> exit();
             default -> {
                 System.out.println("Неверный ввод. Попробуйте снова.");
                 displayMenu();
@@ -79,31 +99,19 @@ public class LauncherTracker {
     }
 
     private void addTrackerById() {
-        System.out.print("Укажите ID времени (0-47): ");
+        System.out.print("Укажите ID или время ЧЧ:ММ (" + slotRange() + "): ");
 
         try {
-            int id = Integer.parseInt(scanner.nextLine().trim());
-
-            System.out.println("Доступные действия:");
-            for (Action action : Action.getAllActions()) {
-                System.out.println("- " + action.getDisplayName());
-            }
-
-            System.out.print("Укажите действие: ");
-            String actionInput = scanner.nextLine().trim();
+            int id = trackerTime.parseSlot(scanner.nextLine());
 
-            Action action = Action.findActionName(actionInput);
-            if (action == null) {
-                action = Action.NULL;
-                System.out.println("Действие не найдено. Установлено 'Свободно'");
-            }
+            Action action = askAction();
 
             trackerTime.setMapAction(id, action);
             System.out.printf("Вы установили '%s' на %s%n%n",
                     action.getDisplayName(),
                     trackerTime.getMapTime(id));
-        } catch (NumberFormatException e) {
-            System.out.println("Ошибка: введите число от 0 до 47");
+        } catch (NumberFormatException | DateTimeParseException e) {
+            System.out.println("Ошибка: введите число " + slotRange() + " или время ЧЧ:ММ");
         } catch (IllegalArgumentException e) {
             System.out.println("Ошибка: " + e.getMessage());
         }
@@ -111,38 +119,57 @@ public class LauncherTracker {
 
     private void addTrackerByRangeId() {
         try {
-            System.out.print("Укажите начальный ID времени (0-47): ");
-            int startTime = Integer.parseInt(scanner.nextLine().trim());
-
-            System.out.print("Укажите конечный ID времени (0-47): ");
-            int endTime = Integer.parseInt(scanner.nextLine().trim());
+            System.out.print("Укажите начальный ID или время ЧЧ:ММ (" + slotRange() + "): ");
+            int startTime = trackerTime.parseSlot(scanner.nextLine());
 
-            System.out.println("Доступные действия:");
-            for (Action action : Action.getAllActions()) {
-                System.out.println("- " + action.getDisplayName());
-            }
+            System.out.print("Укажите конечный ID или время ЧЧ:ММ (" + slotRange() + "): ");
+            int endTime = trackerTime.parseSlot(scanner.nextLine());
 
-            System.out.print("Укажите действие: ");
-            String actionInput = scanner.nextLine().trim();
-
-            Action action = Action.findActionName(actionInput);
-            if (action == null) {
-                action = Action.NULL;
-                System.out.println("Действие не найдено. Установлено 'Свободно'");
-            }
+            Action action = askAction();
 
             trackerTime.setMapAction(action, startTime, endTime);
             System.out.printf("Вы установили '%s' в диапазоне: от %s до %s (включительно)%n%n",
                     action.getDisplayName(),
                     trackerTime.getMapTime(startTime),
                     trackerTime.getMapTime(endTime));
-        } catch (NumberFormatException e) {
-            System.out.println("Ошибка: введите число от 0 до 47");
+        } catch (NumberFormatException | DateTimeParseException e) {
+            System.out.println("Ошибка: введите число " + slotRange() + " или время ЧЧ:ММ");
         } catch (IllegalArgumentException e) {
             System.out.println("Ошибка: " + e.getMessage());
         }
     }
 
+    private Action askAction() {
+        while (true) {
+            System.out.print("Укажите действие (начало названия или пусто - подсказки): ");
+            String actionInput = scanner.nextLine().trim();
+
+            Action action = Action.findActionName(actionInput);
+            if (action != null) {
+                return action;
+            }
+
+            List<Action> suggestions = Action.suggestActions(actionInput, SUGGESTION_LIMIT);
+            if (suggestions.isEmpty()) {
+                System.out.println("Действие не найдено. Установлено 'Свободно'");
+                return Action.NULL;
+            }
+            if (suggestions.size() == 1 && !actionInput.isEmpty()) {
+                System.out.println("Выбрано действие: " + suggestions.get(0).getDisplayName());
+                return suggestions.get(0);
+            }
+
+            System.out.println("Подходящие действия:");
+            for (Action suggestion : suggestions) {
+                System.out.println("- " + suggestion.getDisplayName());
+            }
+        }
+    }
+
+    private String slotRange() {
+        return "0-" + (trackerTime.getSlotCount() - 1);
+    }
+
     private void addCustomAction() {
         trackerTime.addCustomAction(scanner);
         returnToMenu();
@@ -161,7 +188,21 @@ public class LauncherTracker {
     private void showAnalysis() {
         String title = "=== Статистика времени ===";
         System.out.println(title);
-        trackerTime.showAnalise();
+        System.out.print("Конечная дата периода (" + trackerTime.getSettings().getDateFormat()
+                + ", пусто - только текущий день): ");
+        String input = scanner.nextLine().trim();
+
+        try {
+            if (input.isEmpty()) {
+                trackerTime.showAnalise();
+            } else {
+                trackerTime.showAnalise(trackerTime.getCurrentDate(), trackerTime.parseDate(input));
+            }
+        } catch (DateTimeParseException e) {
+            System.out.println("Ошибка: дата должна быть в формате " + trackerTime.getSettings().getDateFormat());
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
         System.out.println("=".repeat(title.length()));
         returnToMenu();
     }
@@ -171,8 +212,194 @@ public class LauncherTracker {
         displayMenu();
     }
 
+    private void selectDate() {
+        String pattern = trackerTime.getSettings().getDateFormat();
+        System.out.printf("Текущая дата: %s%n", trackerTime.formatDate(trackerTime.getCurrentDate()));
+        System.out.print("Укажите дату (" + pattern + ", пусто - сегодня): ");
+        String input = scanner.nextLine().trim();
+
+        try {
+            LocalDate date = input.isEmpty() ? LocalDate.now() : trackerTime.parseDate(input);
+            trackerTime.selectDate(date);
+            System.out.println("Выбрана дата: " + trackerTime.formatDate(date));
+        } catch (DateTimeParseException e) {
+            System.out.println("Ошибка: дата должна быть в формате " + pattern);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+        displayMenu();
+    }
+
+    private void showTotals() {
+        String pattern = trackerTime.getSettings().getDateFormat();
+
+        try {
+            System.out.print("Начальная дата (" + pattern + "): ");
+            LocalDate from = trackerTime.parseDate(scanner.nextLine());
+            System.out.print("Конечная дата (" + pattern + "): ");
+            LocalDate to = trackerTime.parseDate(scanner.nextLine());
+            trackerTime.showTotals(from, to);
+        } catch (DateTimeParseException e) {
+            System.out.println("Ошибка: дата должна быть в формате " + pattern);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+        returnToMenu();
+    }
+
+    private void showEdits() {
+        String title = "=== История правок дня ===";
+        System.out.println(title);
+        System.out.println("""
+                1. Отменить правку
+                2. Повторить правку
+                3. Показать день на правке N""");
+        System.out.print("Ваш выбор: ");
+        String response = scanner.nextLine().trim();
+
+        try {
+            switch (response) {
+                case "1" -> trackerTime.undoEdit();
+                case "2" -> trackerTime.redoEdit();
+                case "3" -> {
+                    System.out.print("Номер правки (0-" + trackerTime.getEditCount() + "): ");
+                    trackerTime.printEdit(Integer.parseInt(scanner.nextLine().trim()));
+                }
+                default -> System.out.println("Неверный выбор.");
+            }
+        } catch (NumberFormatException e) {
+            System.out.println("Ошибка: введите число");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+        System.out.println("=".repeat(title.length()));
+        returnToMenu();
+    }
+
+    private void showLabels() {
+        String title = "=== Совмещённые действия ===";
+        System.out.println(title);
+        System.out.println("""
+                1. Добавить совмещённое действие на диапазон
+                2. Убрать совмещённое действие с диапазона
+                3. Время совмещения двух действий за период""");
+        System.out.print("Ваш выбор: ");
+        String response = scanner.nextLine().trim();
+
+        try {
+            switch (response) {
+                case "1", "2" -> {
+                    System.out.print("Укажите начальный ID или время ЧЧ:ММ (" + slotRange() + "): ");
+                    int startTime = trackerTime.parseSlot(scanner.nextLine());
+                    System.out.print("Укажите конечный ID или время ЧЧ:ММ (" + slotRange() + "): ");
+                    int endTime = trackerTime.parseSlot(scanner.nextLine());
+                    Action action = askAction();
+
+                    boolean changed = response.equals("1")
+                            ? trackerTime.addLabel(action, startTime, endTime)
+                            : trackerTime.removeLabel(action, startTime, endTime);
+                    String result = response.equals("1")
+                            ? (changed ? "совмещено" : "уже было совмещено")
+                            : (changed ? "убрано" : "не было совмещено");
+                    System.out.printf("'%s' %s в диапазоне: от %s до %s (включительно)%n",
+                            action.getDisplayName(),
+                            result,
+                            trackerTime.getMapTime(startTime),
+                            trackerTime.getMapTime(endTime));
+                }
+                case "3" -> {
+                    String pattern = trackerTime.getSettings().getDateFormat();
+                    Action first = askAction();
+                    Action second = askAction();
+                    System.out.print("Начальная дата (" + pattern + "): ");
+                    LocalDate from = trackerTime.parseDate(scanner.nextLine());
+                    System.out.print("Конечная дата (" + pattern + "): ");
+                    LocalDate to = trackerTime.parseDate(scanner.nextLine());
+
+                    long minutes = trackerTime.getOverlapMinutes(first, second, from, to);
+                    System.out.printf("'%s' и '%s' одновременно: %d час. %d мин.%n",
+                            first.getDisplayName(), second.getDisplayName(), minutes / 60, minutes % 60);
+                }
+                default -> System.out.println("Неверный выбор.");
+            }
+        } catch (NumberFormatException | DateTimeParseException e) {
+            System.out.println("Ошибка: неверный формат ввода");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+        System.out.println("=".repeat(title.length()));
+        returnToMenu();
+    }
+
+    private void showAnalytics() {
+        String pattern = trackerTime.getSettings().getDateFormat();
+
+        try {
+            System.out.print("Начальная дата (" + pattern + "): ");
+            LocalDate from = trackerTime.parseDate(scanner.nextLine());
+            System.out.print("Конечная дата (" + pattern + "): ");
+            LocalDate to = trackerTime.parseDate(scanner.nextLine());
+            trackerTime.showAnalytics(from, to);
+        } catch (DateTimeParseException e) {
+            System.out.println("Ошибка: дата должна быть в формате " + pattern);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+        returnToMenu();
+    }
+
+    private void exportHistory() {
+        String pattern = trackerTime.getSettings().getDateFormat();
+
+        try {
+            System.out.print("Начальная дата (" + pattern + "): ");
+            LocalDate from = trackerTime.parseDate(scanner.nextLine());
+            System.out.print("Конечная дата (" + pattern + "): ");
+            LocalDate to = trackerTime.parseDate(scanner.nextLine());
+            trackerTime.exportHistory(from, to);
+        } catch (DateTimeParseException e) {
+            System.out.println("Ошибка: дата должна быть в формате " + pattern);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+        returnToMenu();
+    }
+
+    private void exportReport() {
+        String pattern = trackerTime.getSettings().getDateFormat();
+
+        try {
+            ReportPeriod period = choose("Период отчёта", ReportPeriod.values());
+            System.out.print("Дата внутри периода (" + pattern + ", пусто - текущая): ");
+            String date = scanner.nextLine().trim();
+            LocalDate anchor = date.isEmpty() ? trackerTime.getCurrentDate() : trackerTime.parseDate(date);
+            ReportFormat format = choose("Формат отчёта", ReportFormat.values());
+            trackerTime.exportReport(format, period, anchor);
+        } catch (DateTimeParseException e) {
+            System.out.println("Ошибка: дата должна быть в формате " + pattern);
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+        returnToMenu();
+    }
+
+    private <T> T choose(String title, T[] options) {
+        System.out.println(title + ":");
+        for (int i = 0; i < options.length; i++) {
+            System.out.println((i + 1) + ". " + options[i]);
+        }
+        System.out.print("Ваш выбор: ");
+
+        try {
+            return options[Integer.parseInt(scanner.nextLine().trim()) - 1];
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            throw new IllegalArgumentException("неверный выбор");
+        }
+    }
+
     private void exit() {
         System.out.println("Выход из программы...");
+        trackerTime.close();
         this.isWorking = false;
     }
 
@@ -184,6 +411,7 @@ public class LauncherTracker {
 
     public void start() {
         displayMenu();
+        trackerTime.startWatching();
         while (isWorking) {
             handleUserInput();
         }
@@ -1,8 +1,50 @@
-import java.io.IOException;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 
 public class MainApp {
     public static void main(String[] args) throws IOException {
+        if (args.length > 0 && args[0].equals("--serve")) {
+            if (System.getProperty(TrackerHttpServer.MAX_IDLE_CONNECTIONS) == null) {
+                System.setProperty(TrackerHttpServer.MAX_IDLE_CONNECTIONS,
+                        String.valueOf(TrackerHttpServer.MAX_IDLE_CONNECTIONS_DEFAULT));
+            }
+            TrackerHttpServer.serve(args.length > 1 ? Integer.parseInt(args[1]) : TrackerHttpServer.DEFAULT_PORT);
+            return;
+        }
+
+        if (args.length > 0 && args[0].equals("--batch")) {
+            if (args.length != 2) {
+                System.out.println("Использование: --batch <файл команд | ->");
+                System.exit(2);
+            }
+            if (!runBatch(args[1])) {
+                System.exit(1);
+            }
+            return;
+        }
+
         LauncherTracker lt = new LauncherTracker();
         lt.start();
     }
+
+    private static boolean runBatch(String source) throws IOException {
+        TrackerTime trackerTime = new TrackerTime();
+
+        try (Reader reader = source.equals("-")
+                ? new InputStreamReader(System.in)
+                : Files.newBufferedReader(Path.of(source), StandardCharsets.UTF_8)) {
+            TrackerBatch batch = TrackerBatch.parse(reader, trackerTime);
+            if (!batch.isValid()) {
+                batch.getErrors().forEach(System.out::println);
+                System.out.println("Пакет не применён: найдено ошибок " + batch.getErrors().size());
+                return false;
+            }
+
+            return trackerTime.applyBatch(batch);
+        } finally {
+            trackerTime.close();
+        }
+    }
 }
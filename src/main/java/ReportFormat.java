@@ -0,0 +1,23 @@
+public enum ReportFormat {
+    CONSOLE("консоль", null),
+    CSV("CSV", "csv"),
+    JSON("JSON", "json"),
+    HTML("HTML", "html");
+
+    private final String title;
+    private final String extension;
+
+    ReportFormat(String title, String extension) {
+        this.title = title;
+        this.extension = extension;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    @Override
+    public String toString() {
+        return title;
+    }
+}
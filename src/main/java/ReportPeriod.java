@@ -0,0 +1,39 @@
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+public enum ReportPeriod {
+    DAY("день"),
+    WEEK("неделя"),
+    MONTH("месяц"),
+    YEAR("год");
+
+    private final String title;
+
+    ReportPeriod(String title) {
+        this.title = title;
+    }
+
+    public LocalDate start(LocalDate anchor) {
+        return switch (this) {
+            case DAY -> anchor;
+            case WEEK -> anchor.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> anchor.withDayOfMonth(1);
+            case YEAR -> anchor.withDayOfYear(1);
+        };
+    }
+
+    public LocalDate end(LocalDate anchor) {
+        return switch (this) {
+            case DAY -> anchor;
+            case WEEK -> anchor.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+            case MONTH -> anchor.with(TemporalAdjusters.lastDayOfMonth());
+            case YEAR -> anchor.with(TemporalAdjusters.lastDayOfYear());
+        };
+    }
+
+    @Override
+    public String toString() {
+        return title;
+    }
+}
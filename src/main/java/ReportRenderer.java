@@ -0,0 +1,341 @@
+import java.io.*;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+
+public abstract class ReportRenderer {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    protected final Writer out;
+    protected final DateTimeFormatter dateFormat;
+    protected final StringBuilder line = new StringBuilder(128);
+    private final String[] times;
+
+    protected ReportRenderer(Writer out, DateTimeFormatter dateFormat, int slotsPerDay, int minutesPerSlot) {
+        this.out = out;
+        this.dateFormat = dateFormat;
+        this.times = new String[slotsPerDay + 1];
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            int minutes = slot * minutesPerSlot;
+            times[slot] = LocalTime.of(minutes / 60, minutes % 60).toString();
+        }
+        times[slotsPerDay] = "24:00";
+    }
+
+    public static ReportRenderer create(ReportFormat format, Writer out, AppSettings settings,
+                                        int slotsPerDay, int minutesPerSlot) {
+        DateTimeFormatter dateFormat = DateTimeFormatter.ofPattern(settings.getDateFormat());
+        return switch (format) {
+            case CONSOLE -> new ConsoleRenderer(out, dateFormat, slotsPerDay, minutesPerSlot);
+            case CSV -> new CsvRenderer(out, dateFormat, slotsPerDay, minutesPerSlot, settings.getSplitter());
+            case JSON -> new JsonRenderer(out, slotsPerDay, minutesPerSlot);
+            case HTML -> new HtmlRenderer(out, dateFormat, slotsPerDay, minutesPerSlot);
+        };
+    }
+
+    public static Writer console() {
+        String encoding = System.getProperty("stdout.encoding", System.getProperty("sun.stdout.encoding"));
+        Charset charset = encoding != null ? Charset.forName(encoding) : Charset.defaultCharset();
+        return new BufferedWriter(new OutputStreamWriter(System.out, charset), BUFFER_SIZE);
+    }
+
+    public static Writer file(File file) throws IOException {
+        return new BufferedWriter(new OutputStreamWriter(new FileOutputStream(file), StandardCharsets.UTF_8), BUFFER_SIZE);
+    }
+
+    protected String time(int slot) {
+        return times[slot];
+    }
+
+    protected void flushLine() throws IOException {
+        out.append(line);
+        line.setLength(0);
+    }
+
+    public abstract void begin(LocalDate from, LocalDate to) throws IOException;
+
+    public abstract void beginDay(LocalDate date) throws IOException;
+
+    public abstract void segment(int fromSlot, int toSlot, Action action) throws IOException;
+
+    public abstract void endDay() throws IOException;
+
+    public abstract void beginStatistics() throws IOException;
+
+    public abstract void statistic(Action action, long minutes, int intervals) throws IOException;
+
+    public abstract void end() throws IOException;
+
+    private static class ConsoleRenderer extends ReportRenderer {
+        private int statisticNumber;
+
+        ConsoleRenderer(Writer out, DateTimeFormatter dateFormat, int slotsPerDay, int minutesPerSlot) {
+            super(out, dateFormat, slotsPerDay, minutesPerSlot);
+        }
+
+        @Override
+        public void begin(LocalDate from, LocalDate to) throws IOException {
+            line.append("=== Отчёт с ");
+            dateFormat.formatTo(from, line);
+            line.append(" по ");
+            dateFormat.formatTo(to, line);
+            line.append(" ===\n");
+            flushLine();
+        }
+
+        @Override
+        public void beginDay(LocalDate date) throws IOException {
+            dateFormat.formatTo(date, line);
+            line.append('\n');
+            flushLine();
+        }
+
+        @Override
+        public void segment(int fromSlot, int toSlot, Action action) throws IOException {
+            line.append("   ").append(time(fromSlot)).append(" - ").append(time(toSlot + 1))
+                    .append(" | ").append(action.getDisplayName()).append('\n');
+            flushLine();
+        }
+
+        @Override
+        public void endDay() {
+        }
+
+        @Override
+        public void beginStatistics() throws IOException {
+            out.write("=== Статистика по действиям ===\n");
+        }
+
+        @Override
+        public void statistic(Action action, long minutes, int intervals) throws IOException {
+            line.append(++statisticNumber).append(". ").append(action.getDisplayName());
+            for (int i = action.getDisplayName().length(); i < 15; i++) {
+                line.append(' ');
+            }
+            line.append(" | Всего: ").append(minutes / 60).append(" час. ").append(minutes % 60)
+                    .append(" мин. | Интервалов: ").append(intervals).append('\n');
+            flushLine();
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.flush();
+        }
+    }
+
+    private static class CsvRenderer extends ReportRenderer {
+        private final char splitter;
+        private LocalDate date;
+
+        CsvRenderer(Writer out, DateTimeFormatter dateFormat, int slotsPerDay, int minutesPerSlot, char splitter) {
+            super(out, dateFormat, slotsPerDay, minutesPerSlot);
+            this.splitter = splitter;
+        }
+
+        @Override
+        public void begin(LocalDate from, LocalDate to) throws IOException {
+            line.append("Дата").append(splitter).append("Начало").append(splitter).append("Конец")
+                    .append(splitter).append("ActionID").append(splitter).append("Действие").append('\n');
+            flushLine();
+        }
+
+        @Override
+        public void beginDay(LocalDate date) {
+            this.date = date;
+        }
+
+        @Override
+        public void segment(int fromSlot, int toSlot, Action action) throws IOException {
+            dateFormat.formatTo(date, line);
+            line.append(splitter).append(time(fromSlot)).append(splitter).append(time(toSlot + 1)).append(splitter);
+            field(action.getId());
+            line.append(splitter);
+            field(action.getDisplayName());
+            line.append('\n');
+            flushLine();
+        }
+
+        @Override
+        public void endDay() {
+        }
+
+        @Override
+        public void beginStatistics() throws IOException {
+            line.append('\n').append("ActionID").append(splitter).append("Действие").append(splitter)
+                    .append("Минуты").append(splitter).append("Интервалы").append('\n');
+            flushLine();
+        }
+
+        @Override
+        public void statistic(Action action, long minutes, int intervals) throws IOException {
+            field(action.getId());
+            line.append(splitter);
+            field(action.getDisplayName());
+            line.append(splitter).append(minutes).append(splitter).append(intervals).append('\n');
+            flushLine();
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.flush();
+        }
+
+        private void field(String value) {
+            if (value.indexOf(splitter) < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0) {
+                line.append(value);
+                return;
+            }
+            line.append('"');
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                if (c == '"') {
+                    line.append('"');
+                }
+                line.append(c);
+            }
+            line.append('"');
+        }
+    }
+
+    private static class JsonRenderer extends ReportRenderer {
+        private boolean firstDay = true;
+        private boolean firstItem;
+
+        JsonRenderer(Writer out, int slotsPerDay, int minutesPerSlot) {
+            super(out, DateTimeFormatter.ISO_LOCAL_DATE, slotsPerDay, minutesPerSlot);
+        }
+
+        @Override
+        public void begin(LocalDate from, LocalDate to) throws IOException {
+            line.append("{\"from\":\"").append(from).append("\",\"to\":\"").append(to).append("\",\"days\":[");
+            flushLine();
+        }
+
+        @Override
+        public void beginDay(LocalDate date) throws IOException {
+            line.append(firstDay ? "\n" : ",\n").append("{\"date\":\"").append(date).append("\",\"segments\":[");
+            flushLine();
+            firstDay = false;
+            firstItem = true;
+        }
+
+        @Override
+        public void segment(int fromSlot, int toSlot, Action action) throws IOException {
+            line.append(firstItem ? "" : ",").append("{\"from\":\"").append(time(fromSlot))
+                    .append("\",\"to\":\"").append(time(toSlot + 1)).append("\",\"action\":");
+            Json.quote(line, action.getId()).append('}');
+            flushLine();
+            firstItem = false;
+        }
+
+        @Override
+        public void endDay() throws IOException {
+            out.write("]}");
+        }
+
+        @Override
+        public void beginStatistics() throws IOException {
+            out.write("\n],\"statistics\":[");
+            firstItem = true;
+        }
+
+        @Override
+        public void statistic(Action action, long minutes, int intervals) throws IOException {
+            line.append(firstItem ? "\n" : ",\n").append("{\"action\":");
+            Json.quote(line, action.getId()).append(",\"name\":");
+            Json.quote(line, action.getDisplayName()).append(",\"minutes\":").append(minutes)
+                    .append(",\"intervals\":").append(intervals).append('}');
+            flushLine();
+            firstItem = false;
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.write("\n]}\n");
+            out.flush();
+        }
+    }
+
+    private static class HtmlRenderer extends ReportRenderer {
+        private LocalDate date;
+
+        HtmlRenderer(Writer out, DateTimeFormatter dateFormat, int slotsPerDay, int minutesPerSlot) {
+            super(out, dateFormat, slotsPerDay, minutesPerSlot);
+        }
+
+        @Override
+        public void begin(LocalDate from, LocalDate to) throws IOException {
+            line.append("<!DOCTYPE html>\n<html lang=\"ru\">\n<head><meta charset=\"utf-8\"><title>Отчёт с ");
+            dateFormat.formatTo(from, line);
+            line.append(" по ");
+            dateFormat.formatTo(to, line);
+            line.append("</title></head>\n<body>\n<h1>Отчёт с ");
+            dateFormat.formatTo(from, line);
+            line.append(" по ");
+            dateFormat.formatTo(to, line);
+            line.append("</h1>\n<table>\n<tr><th>Дата</th><th>Начало</th><th>Конец</th><th>Действие</th></tr>\n");
+            flushLine();
+        }
+
+        @Override
+        public void beginDay(LocalDate date) throws IOException {
+            line.append("<tbody data-date=\"").append(date).append("\">\n");
+            flushLine();
+            this.date = date;
+        }
+
+        @Override
+        public void segment(int fromSlot, int toSlot, Action action) throws IOException {
+            line.append("<tr><td>");
+            if (date != null) {
+                dateFormat.formatTo(date, line);
+                date = null;
+            }
+            line.append("</td><td>").append(time(fromSlot)).append("</td><td>").append(time(toSlot + 1))
+                    .append("</td><td>");
+            escape(action.getDisplayName());
+            line.append("</td></tr>\n");
+            flushLine();
+        }
+
+        @Override
+        public void endDay() throws IOException {
+            out.write("</tbody>\n");
+        }
+
+        @Override
+        public void beginStatistics() throws IOException {
+            out.write("</table>\n<h2>Статистика по действиям</h2>\n<table>\n"
+                    + "<tr><th>Действие</th><th>Всего, мин.</th><th>Интервалов</th></tr>\n");
+        }
+
+        @Override
+        public void statistic(Action action, long minutes, int intervals) throws IOException {
+            line.append("<tr><td>");
+            escape(action.getDisplayName());
+            line.append("</td><td>").append(minutes).append("</td><td>").append(intervals).append("</td></tr>\n");
+            flushLine();
+        }
+
+        @Override
+        public void end() throws IOException {
+            out.write("</table>\n</body>\n</html>\n");
+            out.flush();
+        }
+
+        private void escape(String value) {
+            for (int i = 0; i < value.length(); i++) {
+                char c = value.charAt(i);
+                switch (c) {
+                    case '<' -> line.append("&lt;");
+                    case '>' -> line.append("&gt;");
+                    case '&' -> line.append("&amp;");
+                    case '"' -> line.append("&quot;");
+                    default -> line.append(c);
+                }
+            }
+        }
+    }
+}
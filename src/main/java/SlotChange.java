@@ -0,0 +1,51 @@
+import java.time.LocalDate;
+
+public final class SlotChange {
+    public static final int MIXED_ACTIONS = -1;
+
+    private final LocalDate date;
+    private final int from;
+    private final int to;
+    private final int actionIndex;
+    private final int edits;
+
+    public SlotChange(LocalDate date, int from, int to, int actionIndex) {
+        this(date, from, to, actionIndex, 1);
+    }
+
+    private SlotChange(LocalDate date, int from, int to, int actionIndex, int edits) {
+        this.date = date;
+        this.from = from;
+        this.to = to;
+        this.actionIndex = actionIndex;
+        this.edits = edits;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public int getFrom() {
+        return from;
+    }
+
+    public int getTo() {
+        return to;
+    }
+
+    public int getActionIndex() {
+        return actionIndex;
+    }
+
+    public int getEdits() {
+        return edits;
+    }
+
+    public SlotChange merge(SlotChange other) {
+        if (!date.equals(other.date)) {
+            throw new IllegalArgumentException("Нельзя объединить изменения за разные дни");
+        }
+        return new SlotChange(date, Math.min(from, other.from), Math.max(to, other.to),
+                actionIndex == other.actionIndex ? actionIndex : MIXED_ACTIONS, edits + other.edits);
+    }
+}
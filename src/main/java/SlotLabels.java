@@ -0,0 +1,137 @@
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+
+public class SlotLabels {
+    private final int slotsPerDay;
+    private final TreeMap<LocalDate, long[]> days = new TreeMap<>();
+    private int wordsPerSlot = 1;
+
+    public interface RangeConsumer {
+        void accept(LocalDate date, int from, int to, int action);
+    }
+
+    public SlotLabels(int slotsPerDay) {
+        this.slotsPerDay = slotsPerDay;
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+
+    public int getWordsPerSlot() {
+        return wordsPerSlot;
+    }
+
+    public boolean isEmpty() {
+        return days.isEmpty();
+    }
+
+    public boolean hasLabels(LocalDate from, LocalDate to) {
+        return !days.subMap(from, true, to, true).isEmpty();
+    }
+
+    public long[] getDay(LocalDate date) {
+        return days.get(date);
+    }
+
+    public boolean contains(LocalDate date, int slot, int action) {
+        long[] masks = days.get(date);
+        int word = action >>> 6;
+        return masks != null && word < wordsPerSlot && (masks[slot * wordsPerSlot + word] & 1L << action) != 0;
+    }
+
+    public boolean add(LocalDate date, int from, int to, int action) {
+        ensureWords((action >>> 6) + 1);
+        long[] masks = days.computeIfAbsent(date, key -> new long[slotsPerDay * wordsPerSlot]);
+        int word = action >>> 6;
+        long bit = 1L << action;
+        boolean changed = false;
+
+        for (int slot = from; ; slot = (slot + 1) % slotsPerDay) {
+            int index = slot * wordsPerSlot + word;
+            changed |= (masks[index] & bit) == 0;
+            masks[index] |= bit;
+            if (slot == to) {
+                break;
+            }
+        }
+        return changed;
+    }
+
+    public boolean remove(LocalDate date, int from, int to, int action) {
+        long[] masks = days.get(date);
+        int word = action >>> 6;
+        if (masks == null || word >= wordsPerSlot) {
+            return false;
+        }
+
+        long bit = 1L << action;
+        boolean changed = false;
+        for (int slot = from; ; slot = (slot + 1) % slotsPerDay) {
+            int index = slot * wordsPerSlot + word;
+            changed |= (masks[index] & bit) != 0;
+            masks[index] &= ~bit;
+            if (slot == to) {
+                break;
+            }
+        }
+
+        if (isClear(masks)) {
+            days.remove(date);
+        }
+        return changed;
+    }
+
+    public void forEachRange(RangeConsumer consumer) {
+        for (Map.Entry<LocalDate, long[]> day : days.entrySet()) {
+            long[] masks = day.getValue();
+            for (int word = 0; word < wordsPerSlot; word++) {
+                long present = 0;
+                for (int slot = 0; slot < slotsPerDay; slot++) {
+                    present |= masks[slot * wordsPerSlot + word];
+                }
+
+                for (; present != 0; present &= present - 1) {
+                    long bit = Long.lowestOneBit(present);
+                    int action = word * Long.SIZE + Long.numberOfTrailingZeros(bit);
+                    int start = -1;
+                    for (int slot = 0; slot <= slotsPerDay; slot++) {
+                        boolean set = slot < slotsPerDay && (masks[slot * wordsPerSlot + word] & bit) != 0;
+                        if (set && start < 0) {
+                            start = slot;
+                        } else if (!set && start >= 0) {
+                            consumer.accept(day.getKey(), start, slot - 1, action);
+                            start = -1;
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    private void ensureWords(int words) {
+        if (words <= wordsPerSlot) {
+            return;
+        }
+
+        for (Map.Entry<LocalDate, long[]> day : days.entrySet()) {
+            long[] masks = day.getValue();
+            long[] grown = new long[slotsPerDay * words];
+            for (int slot = 0; slot < slotsPerDay; slot++) {
+                System.arraycopy(masks, slot * wordsPerSlot, grown, slot * words, wordsPerSlot);
+            }
+            day.setValue(grown);
+        }
+        wordsPerSlot = words;
+    }
+
+    private static boolean isClear(long[] masks) {
+        for (long mask : masks) {
+            if (mask != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
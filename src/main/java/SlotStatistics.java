@@ -0,0 +1,94 @@
+import java.util.Arrays;
+
+public class SlotStatistics {
+    private final int slotsPerDay;
+    private final int minutesPerSlot;
+    private long[] slotCounts = new long[0];
+    private int[] intervalCounts = new int[0];
+    private int[][] intervals = new int[0][];
+    private int position;
+    private int runAction = -1;
+    private int runStart;
+
+    public SlotStatistics(int slotsPerDay, int minutesPerSlot) {
+        this.slotsPerDay = slotsPerDay;
+        this.minutesPerSlot = minutesPerSlot;
+    }
+
+    public SlotStatistics accept(short[] day) {
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            int action = day[slot];
+            if (action != runAction) {
+                closeRun();
+                runAction = action;
+                runStart = position;
+            }
+            position++;
+        }
+        return this;
+    }
+
+    public SlotStatistics finish() {
+        closeRun();
+        runAction = -1;
+        return this;
+    }
+
+    private void closeRun() {
+        if (runAction < 0) {
+            return;
+        }
+
+        ensureAction(runAction);
+        int count = intervalCounts[runAction];
+        int[] packed = intervals[runAction];
+        if (packed.length < (count + 1) * 2) {
+            packed = Arrays.copyOf(packed, Math.max(4, packed.length * 2));
+            intervals[runAction] = packed;
+        }
+
+        packed[count * 2] = runStart;
+        packed[count * 2 + 1] = position - 1;
+        intervalCounts[runAction] = count + 1;
+        slotCounts[runAction] += position - runStart;
+    }
+
+    private void ensureAction(int action) {
+        if (action < intervalCounts.length) {
+            return;
+        }
+
+        int size = Math.max(action + 1, intervalCounts.length * 2);
+        int oldSize = intervals.length;
+        slotCounts = Arrays.copyOf(slotCounts, size);
+        intervalCounts = Arrays.copyOf(intervalCounts, size);
+        intervals = Arrays.copyOf(intervals, size);
+        for (int i = oldSize; i < size; i++) {
+            intervals[i] = new int[0];
+        }
+    }
+
+    public int getActionCount() {
+        return intervalCounts.length;
+    }
+
+    public long getTotalMinutes(int action) {
+        return action < slotCounts.length ? slotCounts[action] * minutesPerSlot : 0;
+    }
+
+    public int getIntervalCount(int action) {
+        return action < intervalCounts.length ? intervalCounts[action] : 0;
+    }
+
+    public int getIntervalStart(int action, int interval) {
+        return intervals[action][interval * 2];
+    }
+
+    public int getIntervalEnd(int action, int interval) {
+        return intervals[action][interval * 2 + 1];
+    }
+
+    public int getSlotsPerDay() {
+        return slotsPerDay;
+    }
+}
@@ -0,0 +1,183 @@
+import java.util.Arrays;
+
+public class Timeline {
+    private final int slotCount;
+    private int[] starts = new int[8];
+    private short[] actions = new short[8];
+    private int size;
+    private int[] slotCounts = new int[0];
+    private int[] segmentCounts = new int[0];
+
+    public Timeline(int slotCount) {
+        this.slotCount = slotCount;
+        clear();
+    }
+
+    public int getSlotCount() {
+        return slotCount;
+    }
+
+    public void clear() {
+        Arrays.fill(slotCounts, 0);
+        Arrays.fill(segmentCounts, 0);
+        size = 0;
+        insert(0, 0, Action.NULL.getIndex(), slotCount);
+    }
+
+    public void load(short[] day) {
+        Arrays.fill(slotCounts, 0);
+        Arrays.fill(segmentCounts, 0);
+        size = 0;
+
+        int start = 0;
+        for (int slot = 1; slot <= slotCount; slot++) {
+            if (slot == slotCount || day[slot] != day[start]) {
+                insert(size, start, day[start], slot - start);
+                start = slot;
+            }
+        }
+    }
+
+    public void copyTo(short[] day) {
+        for (int i = 0; i < size; i++) {
+            Arrays.fill(day, starts[i], end(i), actions[i]);
+        }
+    }
+
+    public int get(int slot) {
+        return actions[find(slot)];
+    }
+
+    public void assign(int from, int to, int action) {
+        int first = find(from);
+        int last = find(to);
+        int firstStart = starts[first];
+        int firstAction = actions[first];
+        int lastEnd = end(last);
+        int lastAction = actions[last];
+
+        int newFrom = from;
+        int newTo = to + 1;
+        int removeFrom = first;
+        int removeTo = last;
+
+        if (firstStart < from && firstAction == action) {
+            newFrom = firstStart;
+        } else if (firstStart == from && first > 0 && actions[first - 1] == action) {
+            removeFrom = first - 1;
+            newFrom = starts[first - 1];
+        }
+
+        if (lastEnd > to + 1 && lastAction == action) {
+            newTo = lastEnd;
+        } else if (lastEnd == to + 1 && last + 1 < size && actions[last + 1] == action) {
+            removeTo = last + 1;
+            newTo = end(last + 1);
+        }
+
+        int keepLeft = firstStart < newFrom ? newFrom - firstStart : 0;
+        int keepRight = lastEnd > newTo ? lastEnd - newTo : 0;
+
+        for (int i = removeFrom; i <= removeTo; i++) {
+            count(actions[i], -(end(i) - starts[i]), -1);
+        }
+
+        int replacement = (keepLeft > 0 ? 1 : 0) + 1 + (keepRight > 0 ? 1 : 0);
+        int removed = removeTo - removeFrom + 1;
+        shift(removeTo + 1, replacement - removed);
+
+        int at = removeFrom;
+        if (keepLeft > 0) {
+            put(at++, firstStart, firstAction, keepLeft);
+        }
+        put(at++, newFrom, action, newTo - newFrom);
+        if (keepRight > 0) {
+            put(at, newTo, lastAction, keepRight);
+        }
+    }
+
+    public int getSegmentCount() {
+        return size;
+    }
+
+    public int getSegmentStart(int segment) {
+        return starts[segment];
+    }
+
+    public int getSegmentEnd(int segment) {
+        return end(segment) - 1;
+    }
+
+    public int getSegmentAction(int segment) {
+        return actions[segment];
+    }
+
+    public int getActionSlots(int action) {
+        return action < slotCounts.length ? slotCounts[action] : 0;
+    }
+
+    public int getActionSegments(int action) {
+        return action < segmentCounts.length ? segmentCounts[action] : 0;
+    }
+
+    public int getActionCapacity() {
+        return segmentCounts.length;
+    }
+
+    private int end(int segment) {
+        return segment + 1 < size ? starts[segment + 1] : slotCount;
+    }
+
+    private int find(int slot) {
+        if (slot < 0 || slot >= slotCount) {
+            throw new IllegalArgumentException("ID должен быть в диапазоне 0-" + (slotCount - 1));
+        }
+
+        int low = 0;
+        int high = size - 1;
+        while (low < high) {
+            int mid = (low + high + 1) >>> 1;
+            if (starts[mid] <= slot) {
+                low = mid;
+            } else {
+                high = mid - 1;
+            }
+        }
+        return low;
+    }
+
+    private void shift(int from, int delta) {
+        if (delta == 0) {
+            return;
+        }
+        if (size + delta > starts.length) {
+            int capacity = Math.max(starts.length * 2, size + delta);
+            starts = Arrays.copyOf(starts, capacity);
+            actions = Arrays.copyOf(actions, capacity);
+        }
+        System.arraycopy(starts, from, starts, from + delta, size - from);
+        System.arraycopy(actions, from, actions, from + delta, size - from);
+        size += delta;
+    }
+
+    private void insert(int at, int start, int action, int length) {
+        shift(at, 1);
+        put(at, start, action, length);
+    }
+
+    private void put(int at, int start, int action, int length) {
+        starts[at] = start;
+        actions[at] = (short) action;
+        count(action, length, 1);
+    }
+
+    private void count(int action, int slots, int segments) {
+        if (action >= segmentCounts.length) {
+            int capacity = Math.max(action + 1, segmentCounts.length * 2);
+            slotCounts = Arrays.copyOf(slotCounts, capacity);
+            segmentCounts = Arrays.copyOf(segmentCounts, capacity);
+        }
+        slotCounts[action] += slots;
+        segmentCounts[action] += segments;
+    }
+}
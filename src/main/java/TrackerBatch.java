@@ -0,0 +1,170 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.Reader;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.*;
+
+public class TrackerBatch {
+    private final List<String> newActions = new ArrayList<>();
+    private final Map<LocalDate, List<Assignment>> assignments = new LinkedHashMap<>();
+    private final List<String> errors = new ArrayList<>();
+    private final Set<String> pendingNames = new HashSet<>();
+    private final Set<String> pendingIds = new HashSet<>();
+    private LocalDate finalDate;
+    private boolean saveRequested;
+    private int commandCount;
+
+    private TrackerBatch() {
+    }
+
+    public static TrackerBatch parse(Reader source, TrackerTime tracker) throws IOException {
+        TrackerBatch batch = new TrackerBatch();
+        BufferedReader reader = source instanceof BufferedReader buffered ? buffered : new BufferedReader(source);
+        LocalDate date = tracker.getCurrentDate();
+        String line;
+        int lineNumber = 0;
+
+        while ((line = reader.readLine()) != null) {
+            lineNumber++;
+            String command = line.strip();
+            if (command.isEmpty() || command.startsWith("#")) {
+                continue;
+            }
+
+            try {
+                date = batch.parseCommand(command, date, tracker);
+                batch.commandCount++;
+            } catch (NumberFormatException | DateTimeParseException e) {
+                batch.errors.add("Строка " + lineNumber + ": неверный формат даты или времени в '" + command + "'");
+            } catch (IllegalArgumentException e) {
+                batch.errors.add("Строка " + lineNumber + ": " + e.getMessage());
+            }
+        }
+
+        if (!date.equals(tracker.getCurrentDate())) {
+            batch.finalDate = date;
+        }
+        return batch;
+    }
+
+    private LocalDate parseCommand(String command, LocalDate date, TrackerTime tracker) {
+        String[] words = command.split("\\s+", 4);
+        String keyword = words[0].toLowerCase(Locale.ROOT);
+
+        switch (keyword) {
+            case "date" -> {
+                requireArguments(words, 2, "date <дата>");
+                LocalDate parsed = tracker.parseDate(command.substring(words[0].length()));
+                tracker.checkDate(parsed);
+                return parsed;
+            }
+            case "set" -> {
+                String[] arguments = command.split("\\s+", 3);
+                requireArguments(arguments, 3, "set <ID|ЧЧ:ММ> <действие>");
+                int slot = tracker.parseSlot(arguments[1]);
+                tracker.checkDate(date);
+                add(date, slot, slot, checkAction(arguments[2]));
+            }
+            case "range" -> {
+                requireArguments(words, 4, "range <начало> <конец> <действие>");
+                tracker.checkDate(date);
+                add(date, tracker.parseSlot(words[1]), tracker.parseSlot(words[2]), checkAction(words[3]));
+            }
+            case "action" -> {
+                String name = command.substring(words[0].length()).strip();
+                if (name.isEmpty()) {
+                    throw new IllegalArgumentException("название действия не может быть пустым");
+                }
+                if (Action.findActionName(name) != null || pendingNames.contains(ActionIndex.fold(name))) {
+                    throw new IllegalArgumentException("действие '" + name + "' уже существует");
+                }
+                String id = Action.customActionId(name);
+                if (Action.getAction(id) != null || !pendingIds.add(id)) {
+                    throw new IllegalArgumentException("действие '" + name + "' совпадает по идентификатору " + id
+                            + " с уже существующим");
+                }
+                pendingNames.add(ActionIndex.fold(name));
+                newActions.add(name);
+            }
+            case "save" -> {
+                requireArguments(words, 1, "save");
+                saveRequested = true;
+            }
+            default -> throw new IllegalArgumentException("неизвестная команда '" + words[0] + "'");
+        }
+        return date;
+    }
+
+    private static void requireArguments(String[] words, int count, String usage) {
+        if (words.length != count) {
+            throw new IllegalArgumentException("ожидается '" + usage + "'");
+        }
+    }
+
+    private String checkAction(String reference) {
+        String name = reference.strip();
+        if (Action.getAction(name) == null && Action.findActionName(name) == null
+                && !pendingNames.contains(ActionIndex.fold(name))) {
+            throw new IllegalArgumentException("действие '" + name + "' не найдено");
+        }
+        return name;
+    }
+
+    private void add(LocalDate date, int from, int to, String action) {
+        assignments.computeIfAbsent(date, key -> new ArrayList<>()).add(new Assignment(from, to, action));
+    }
+
+    public boolean isValid() {
+        return errors.isEmpty();
+    }
+
+    public List<String> getErrors() {
+        return Collections.unmodifiableList(errors);
+    }
+
+    public List<String> getNewActions() {
+        return Collections.unmodifiableList(newActions);
+    }
+
+    public Map<LocalDate, List<Assignment>> getAssignments() {
+        return Collections.unmodifiableMap(assignments);
+    }
+
+    public LocalDate getFinalDate() {
+        return finalDate;
+    }
+
+    public boolean isSaveRequested() {
+        return saveRequested;
+    }
+
+    public int getCommandCount() {
+        return commandCount;
+    }
+
+    public static class Assignment {
+        private final int from;
+        private final int to;
+        private final String action;
+
+        Assignment(int from, int to, String action) {
+            this.from = from;
+            this.to = to;
+            this.action = action;
+        }
+
+        public int getFrom() {
+            return from;
+        }
+
+        public int getTo() {
+            return to;
+        }
+
+        public Action getAction() {
+            Action action = Action.getAction(this.action);
+            return action != null ? action : Action.findActionName(this.action);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+import java.io.Closeable;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.function.Consumer;
+
+public class TrackerEvents implements Closeable {
+    private static final int BUFFER_SIZE = 256;
+    private static final long CLOSE_TIMEOUT_SECONDS = 5;
+
+    private final ScheduledExecutorService executor;
+    private final SubmissionPublisher<SlotChange> publisher;
+    private final List<BatchingSubscriber<SlotChange, LocalDate>> subscribers = new CopyOnWriteArrayList<>();
+    private final List<ExecutorService> handlers = new CopyOnWriteArrayList<>();
+
+    public TrackerEvents() {
+        this.executor = Executors.newSingleThreadScheduledExecutor(daemon("tracker-events"));
+        this.publisher = new SubmissionPublisher<>(executor, BUFFER_SIZE);
+    }
+
+    public BatchingSubscriber<SlotChange, LocalDate> subscribe(int maxBatch, long lingerMillis,
+                                                               Consumer<List<SlotChange>> handler) {
+        ExecutorService handlerExecutor = Executors.newSingleThreadExecutor(
+                daemon("tracker-events-" + (handlers.size() + 1)));
+        handlers.add(handlerExecutor);
+        BatchingSubscriber<SlotChange, LocalDate> subscriber = new BatchingSubscriber<>(maxBatch, lingerMillis,
+                SlotChange::getDate, SlotChange::merge, handler, executor, handlerExecutor);
+        subscribers.add(subscriber);
+        publisher.subscribe(subscriber);
+        return subscriber;
+    }
+
+    public void publish(SlotChange change) {
+        if (!publisher.isClosed()) {
+            publisher.submit(change);
+        }
+    }
+
+    @Override
+    public void close() {
+        publisher.close();
+        try {
+            for (BatchingSubscriber<SlotChange, LocalDate> subscriber : subscribers) {
+                if (!subscriber.awaitCompletion(CLOSE_TIMEOUT_SECONDS, TimeUnit.SECONDS)) {
+                    System.out.println("Не все изменения обработаны до закрытия");
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        handlers.forEach(ExecutorService::shutdown);
+        executor.shutdown();
+    }
+
+    private static ThreadFactory daemon(String name) {
+        return runnable -> {
+            Thread thread = new Thread(runnable, name);
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
@@ -0,0 +1,232 @@
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public class TrackerFileParser {
+    private static final int BUFFER_SIZE = 8192;
+    private static final int HEADER_LINES = 2;
+    private static final int ID_COLUMN = 0;
+    private static final int ACTION_COLUMN = 3;
+    private final char splitter;
+    private final int totalSlots;
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private final int[] bounds = new int[(ACTION_COLUMN + 1) * 2];
+    private char[] line = new char[256];
+    private Action[] table = new Action[0];
+    private List<char[]> remembered;
+    private boolean retryAll;
+    private int loadedCount;
+    private int malformedCount;
+    private int firstMalformedLine;
+
+    public interface SlotConsumer {
+        void accept(int slot, Action action);
+    }
+
+    public TrackerFileParser(char splitter, int totalSlots) {
+        this.splitter = splitter;
+        this.totalSlots = totalSlots;
+    }
+
+    public char getSplitter() {
+        return splitter;
+    }
+
+    public int parse(Path file, SlotConsumer consumer) throws IOException {
+        return read(file, false, consumer);
+    }
+
+    public int parseChanges(Path file, SlotConsumer consumer) throws IOException {
+        return read(file, !retryAll && remembered != null, consumer);
+    }
+
+    public void remember(Path file) throws IOException {
+        read(file, false, null);
+        retryAll = false;
+    }
+
+    private int read(Path file, boolean changesOnly, SlotConsumer consumer) throws IOException {
+        buildTable();
+        loadedCount = 0;
+        malformedCount = 0;
+        firstMalformedLine = 0;
+
+        List<char[]> previous = changesOnly ? remembered : null;
+        List<char[]> lines = new ArrayList<>(previous != null ? previous.size() : HEADER_LINES + totalSlots);
+        int lineLength = 0;
+        int read;
+
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            while ((read = reader.read(buffer)) != -1) {
+                for (int i = 0; i < read; i++) {
+                    char c = buffer[i];
+                    if (c == '\n') {
+                        endLine(lineLength, previous, lines, consumer);
+                        lineLength = 0;
+                    } else {
+                        if (lineLength == line.length) {
+                            line = Arrays.copyOf(line, line.length * 2);
+                        }
+                        line[lineLength++] = c;
+                    }
+                }
+            }
+        }
+
+        if (lineLength > 0) {
+            endLine(lineLength, previous, lines, consumer);
+        }
+        remembered = lines;
+        retryAll = malformedCount > 0;
+        return loadedCount;
+    }
+
+    private void endLine(int length, List<char[]> previous, List<char[]> lines, SlotConsumer consumer) {
+        int index = lines.size();
+        if (previous != null && index < previous.size()
+                && Arrays.equals(previous.get(index), 0, previous.get(index).length, line, 0, length)) {
+            lines.add(previous.get(index));
+            return;
+        }
+
+        lines.add(Arrays.copyOf(line, length));
+        if (consumer != null && index >= HEADER_LINES) {
+            parseLine(length, index + 1, consumer);
+        }
+    }
+
+    public int getLoadedCount() {
+        return loadedCount;
+    }
+
+    public int getMalformedCount() {
+        return malformedCount;
+    }
+
+    public int getFirstMalformedLine() {
+        return firstMalformedLine;
+    }
+
+    private void parseLine(int length, int lineNumber, SlotConsumer consumer) {
+        if (isBlank(0, length)) {
+            return;
+        }
+        if (!splitColumns(length)) {
+            markMalformed(lineNumber);
+            return;
+        }
+
+        int slot = parseSlot(bounds[ID_COLUMN * 2], bounds[ID_COLUMN * 2 + 1]);
+        Action action = lookup(bounds[ACTION_COLUMN * 2], bounds[ACTION_COLUMN * 2 + 1]);
+
+        if (slot < 0 || slot >= totalSlots || action == null) {
+            markMalformed(lineNumber);
+            return;
+        }
+
+        consumer.accept(slot, action);
+        loadedCount++;
+    }
+
+    private boolean splitColumns(int length) {
+        int column = 0;
+        int start = 0;
+
+        for (int i = 0; i <= length && column <= ACTION_COLUMN; i++) {
+            if (i == length || line[i] == splitter) {
+                int from = start;
+                int to = i;
+                while (from < to && line[from] <= ' ') from++;
+                while (to > from && line[to - 1] <= ' ') to--;
+
+                bounds[column * 2] = from;
+                bounds[column * 2 + 1] = to;
+                column++;
+                start = i + 1;
+            }
+        }
+        return column > ACTION_COLUMN;
+    }
+
+    private int parseSlot(int from, int to) {
+        if (from == to || to - from > 9) {
+            return -1;
+        }
+
+        int value = 0;
+        for (int i = from; i < to; i++) {
+            int digit = line[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return -1;
+            }
+            value = value * 10 + digit;
+        }
+        return value;
+    }
+
+    private void buildTable() {
+        List<Action> actions = Action.getAllActions();
+        int size = Integer.highestOneBit(Math.max(4, actions.size() * 2) - 1) << 1;
+
+        if (table.length != size) {
+            table = new Action[size];
+        } else {
+            Arrays.fill(table, null);
+        }
+
+        for (Action action : actions) {
+            int index = action.getId().hashCode() & (size - 1);
+            while (table[index] != null) {
+                index = (index + 1) & (size - 1);
+            }
+            table[index] = action;
+        }
+    }
+
+    private Action lookup(int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            hash = 31 * hash + line[i];
+        }
+
+        int mask = table.length - 1;
+        for (int index = hash & mask; table[index] != null; index = (index + 1) & mask) {
+            if (matches(table[index].getId(), from, to)) {
+                return table[index];
+            }
+        }
+        return null;
+    }
+
+    private boolean matches(String id, int from, int to) {
+        if (id.length() != to - from) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i++) {
+            if (id.charAt(i) != line[from + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean isBlank(int from, int to) {
+        for (int i = from; i < to; i++) {
+            if (line[i] > ' ') {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void markMalformed(int lineNumber) {
+        if (malformedCount++ == 0) {
+            firstMalformedLine = lineNumber;
+        }
+    }
+}
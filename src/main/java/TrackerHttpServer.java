@@ -0,0 +1,280 @@
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+
+public class TrackerHttpServer implements Closeable {
+    public static final int DEFAULT_PORT = 8080;
+    private static final int BACKLOG = 4096;
+    private static final int MAX_BODY_BYTES = 64 * 1024;
+    private static final String USERS_DIR = "users";
+    private static final String SETTINGS_FILE = "settings.dat";
+    static final String MAX_IDLE_CONNECTIONS = "sun.net.httpserver.maxIdleConnections";
+    static final int MAX_IDLE_CONNECTIONS_DEFAULT = BACKLOG;
+
+    private final TrackerService service;
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    public TrackerHttpServer(TrackerService service, int port) throws IOException {
+        this.service = service;
+        this.executor = VirtualThreads.newExecutor("tracker-http");
+        this.server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), BACKLOG);
+        this.server.createContext("/api/", this::handle);
+        this.server.setExecutor(executor);
+    }
+
+    public static void serve(int port) throws IOException {
+        AppSettings settings = new AppSettings();
+        Path settingsFile = AppSettings.dataFile(SETTINGS_FILE);
+        if (Files.exists(settingsFile)) {
+            settings = BinaryCodec.readSettings(settingsFile);
+        }
+
+        TrackerService service = new TrackerService(AppSettings.dataFile(USERS_DIR), settings);
+        TrackerHttpServer server = new TrackerHttpServer(service, port);
+        Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+            server.close();
+            try {
+                service.close();
+            } catch (IOException e) {
+                System.out.println("Ошибка закрытия истории: " + e.getMessage());
+            }
+        }));
+
+        server.start();
+        System.out.println("=== HTTP API запущен: http://localhost:" + server.getPort() + "/api/ ===");
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdown();
+    }
+
+    private void handle(HttpExchange exchange) throws IOException {
+        long started = TrackerMetrics.start();
+        try {
+            String[] path = exchange.getRequestURI().getRawPath().split("/");
+            String method = exchange.getRequestMethod();
+
+            if (path.length == 3 && path[2].equals("actions")) {
+                if (method.equals("GET")) {
+                    respond(exchange, 200, actions());
+                } else if (method.equals("POST")) {
+                    respond(exchange, 201, createAction(readBody(exchange)));
+                } else {
+                    respondError(exchange, 405, "Метод не поддерживается");
+                }
+            } else if (path.length == 6 && path[2].equals("users") && path[4].equals("days")) {
+                if (method.equals("GET")) {
+                    respond(exchange, 200, day(service.getDay(decode(path[3]), LocalDate.parse(decode(path[5])))));
+                } else {
+                    respondError(exchange, 405, "Метод не поддерживается");
+                }
+            } else if (path.length == 7 && path[2].equals("users") && path[4].equals("days") && path[6].equals("slots")) {
+                if (method.equals("POST")) {
+                    LocalDate date = LocalDate.parse(decode(path[5]));
+                    respond(exchange, 200, day(setSlots(decode(path[3]), date, readBody(exchange))));
+                } else {
+                    respondError(exchange, 405, "Метод не поддерживается");
+                }
+            } else if (path.length == 5 && path[2].equals("users") && path[4].equals("statistics")) {
+                if (!method.equals("GET")) {
+                    respondError(exchange, 405, "Метод не поддерживается");
+                    return;
+                }
+                Map<String, String> query = query(exchange.getRequestURI().getRawQuery());
+                LocalDate from = LocalDate.parse(query.getOrDefault("from", LocalDate.now().toString()));
+                LocalDate to = query.containsKey("to") ? LocalDate.parse(query.get("to")) : from;
+                respond(exchange, 200, statistics(from, service.getStatistics(decode(path[3]), from, to)));
+            } else {
+                respondError(exchange, 404, "Ресурс не найден");
+            }
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            respondError(exchange, 400, e.getMessage());
+        } catch (RuntimeException e) {
+            TrackerMetrics.error(TrackerMetrics.Operation.HTTP_REQUEST);
+            respondError(exchange, 500, e.getMessage());
+        } finally {
+            exchange.close();
+            TrackerMetrics.stop(TrackerMetrics.Operation.HTTP_REQUEST, started);
+        }
+    }
+
+    private DaySnapshot setSlots(String user, LocalDate date, Map<String, String> body) {
+        Action action = action(body.get("action"));
+        if (body.containsKey("slot")) {
+            return service.setSlot(user, date, integer(body, "slot"), action);
+        }
+        return service.setRange(user, date, integer(body, "from"), integer(body, "to"), action);
+    }
+
+    private String createAction(Map<String, String> body) {
+        Action action = service.createAction(body.get("name"));
+        return action(new StringBuilder(), action).toString();
+    }
+
+    private Action action(String value) {
+        if (value == null) {
+            throw new IllegalArgumentException("Не указано действие");
+        }
+        Action action = Action.getAction(value);
+        if (action == null) {
+            action = Action.findActionName(value);
+        }
+        if (action == null) {
+            throw new IllegalArgumentException("Неизвестное действие: " + value);
+        }
+        return action;
+    }
+
+    private String actions() {
+        StringBuilder out = new StringBuilder("[");
+        for (Action action : Action.getAllActions()) {
+            if (out.length() > 1) {
+                out.append(',');
+            }
+            action(out, action);
+        }
+        return out.append(']').toString();
+    }
+
+    private String day(DaySnapshot day) {
+        StringBuilder out = new StringBuilder(256);
+        out.append("{\"date\":\"").append(day.getDate())
+                .append("\",\"version\":").append(day.getVersion())
+                .append(",\"minutesPerSlot\":").append(service.getMinutesPerSlot())
+                .append(",\"segments\":[");
+
+        int start = 0;
+        for (int slot = 1; slot <= day.getSlotCount(); slot++) {
+            if (slot == day.getSlotCount() || day.getAction(slot) != day.getAction(start)) {
+                if (start > 0) {
+                    out.append(',');
+                }
+                out.append("{\"from\":").append(start).append(",\"to\":").append(slot - 1).append(",\"action\":");
+                action(out, day.getAction(start)).append('}');
+                start = slot;
+            }
+        }
+        return out.append("]}").toString();
+    }
+
+    private String statistics(LocalDate from, SlotStatistics statistics) {
+        StringBuilder out = new StringBuilder(256).append("{\"actions\":[");
+        boolean first = true;
+
+        for (int action = 0; action < statistics.getActionCount(); action++) {
+            int intervalCount = statistics.getIntervalCount(action);
+            if (intervalCount == 0) {
+                continue;
+            }
+            if (!first) {
+                out.append(',');
+            }
+            first = false;
+
+            out.append("{\"action\":");
+            action(out, Action.byIndex(action));
+            out.append(",\"minutes\":").append(statistics.getTotalMinutes(action)).append(",\"intervals\":[");
+            for (int i = 0; i < intervalCount; i++) {
+                if (i > 0) {
+                    out.append(',');
+                }
+                out.append("{\"start\":\"").append(position(from, statistics.getIntervalStart(action, i)))
+                        .append("\",\"end\":\"").append(position(from, statistics.getIntervalEnd(action, i) + 1))
+                        .append("\"}");
+            }
+            out.append("]}");
+        }
+        return out.append("]}").toString();
+    }
+
+    private LocalDateTime position(LocalDate from, int position) {
+        return from.atStartOfDay().plusMinutes((long) position * service.getMinutesPerSlot());
+    }
+
+    private static StringBuilder action(StringBuilder out, Action action) {
+        out.append("{\"id\":");
+        Json.quote(out, action.getId()).append(",\"name\":");
+        return Json.quote(out, action.getDisplayName()).append('}');
+    }
+
+    private static int integer(Map<String, String> body, String key) {
+        String value = body.get(key);
+        if (value == null) {
+            throw new IllegalArgumentException("Не указано поле " + key);
+        }
+        try {
+            return Integer.parseInt(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("Поле " + key + " должно быть целым числом");
+        }
+    }
+
+    private static Map<String, String> readBody(HttpExchange exchange) throws IOException {
+        try (InputStream in = exchange.getRequestBody()) {
+            byte[] body = in.readNBytes(MAX_BODY_BYTES + 1);
+            if (body.length > MAX_BODY_BYTES) {
+                throw new IllegalArgumentException("Слишком большой запрос");
+            }
+            return Json.parseObject(new String(body, StandardCharsets.UTF_8));
+        }
+    }
+
+    private static Map<String, String> query(String rawQuery) {
+        Map<String, String> result = new HashMap<>();
+        if (rawQuery == null) {
+            return result;
+        }
+        for (String pair : rawQuery.split("&")) {
+            int equals = pair.indexOf('=');
+            if (equals > 0) {
+                result.put(decode(pair.substring(0, equals)), decode(pair.substring(equals + 1)));
+            }
+        }
+        return result;
+    }
+
+    private static String decode(String value) {
+        return URLDecoder.decode(value, StandardCharsets.UTF_8);
+    }
+
+    private static void respondError(HttpExchange exchange, int status, String message) throws IOException {
+        StringBuilder out = new StringBuilder("{\"error\":");
+        respond(exchange, status, Json.quote(out, message == null ? "Внутренняя ошибка" : message).append('}').toString());
+    }
+
+    private static void respond(HttpExchange exchange, int status, String json) throws IOException {
+        byte[] body = json.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+}
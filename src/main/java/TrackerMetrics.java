@@ -0,0 +1,333 @@
+import javax.management.*;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+public final class TrackerMetrics {
+    public static final String ENABLED_PROPERTY = "tracker.metrics";
+    public static final String DUMP_PROPERTY = "tracker.metrics.dump";
+    private static final String DUMP_FILE = "metrics.txt";
+    private static final String DOMAIN = "TrackerTime";
+    private static final boolean ENABLED = Boolean.getBoolean(ENABLED_PROPERTY);
+    private static final int SUB_BUCKET_BITS = 3;
+    private static final int SUB_BUCKETS = 1 << SUB_BUCKET_BITS;
+    private static final int BUCKETS = (Long.SIZE - SUB_BUCKET_BITS) * SUB_BUCKETS;
+
+    public enum Operation {
+        LOAD_SETTINGS("loadSettings"),
+        LOAD_TRACKER("loadTracker"),
+        SAVE_TRACKER("saveTracker"),
+        LOAD_CUSTOM_ACTIONS("loadCustomActions"),
+        SAVE_CUSTOM_ACTIONS("saveCustomActions"),
+        STATISTICS("statistics"),
+        ANALYTICS("analytics"),
+        REPORT("report"),
+        HTTP_REQUEST("httpRequest");
+
+        private final String metricName;
+        private final Timer timer = new Timer();
+
+        Operation(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public TimerMXBean getTimer() {
+            return timer;
+        }
+    }
+
+    public enum Counter {
+        DAY_CACHE_HITS("dayCacheHits"),
+        DAY_CACHE_MISSES("dayCacheMisses"),
+        DAY_CACHE_EVICTIONS("dayCacheEvictions");
+
+        private final String metricName;
+        private final CounterValue value = new CounterValue();
+
+        Counter(String metricName) {
+            this.metricName = metricName;
+        }
+
+        public String getMetricName() {
+            return metricName;
+        }
+
+        public CounterMXBean getValue() {
+            return value;
+        }
+    }
+
+    public interface CounterMXBean {
+        long getValue();
+
+        void reset();
+    }
+
+    public interface TimerMXBean {
+        long getCount();
+
+        long getErrorCount();
+
+        double getMeanMillis();
+
+        double getMaxMillis();
+
+        double getP50Millis();
+
+        double getP90Millis();
+
+        double getP99Millis();
+
+        void reset();
+    }
+
+    static {
+        if (ENABLED) {
+            register();
+            long period = Long.getLong(DUMP_PROPERTY, 0);
+            if (period > 0) {
+                scheduleDump(period);
+            }
+        }
+    }
+
+    private TrackerMetrics() {
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static long start() {
+        return ENABLED ? System.nanoTime() : 0;
+    }
+
+    public static void stop(Operation operation, long started) {
+        if (ENABLED) {
+            operation.timer.record(System.nanoTime() - started);
+        }
+    }
+
+    public static void error(Operation operation) {
+        if (ENABLED) {
+            operation.timer.errors.increment();
+        }
+    }
+
+    public static void increment(Counter counter) {
+        if (ENABLED) {
+            counter.value.adder.increment();
+        }
+    }
+
+    public static void track(Counter counter, LongAdder source) {
+        counter.value.sources.add(source);
+    }
+
+    public static void untrack(Counter counter, LongAdder source) {
+        counter.value.sources.remove(source);
+    }
+
+    public static void dump(PrintWriter out) {
+        out.printf("=== Метрики трекера ===%n%-18s %9s %7s %10s %10s %10s %10s %10s%n",
+                "Операция", "Вызовов", "Ошибок", "Сред., мс", "p50, мс", "p90, мс", "p99, мс", "Макс., мс");
+        for (Operation operation : Operation.values()) {
+            Timer timer = operation.timer;
+            out.printf("%-18s %9d %7d %10.3f %10.3f %10.3f %10.3f %10.3f%n", operation.metricName,
+                    timer.getCount(), timer.getErrorCount(), timer.getMeanMillis(), timer.getP50Millis(),
+                    timer.getP90Millis(), timer.getP99Millis(), timer.getMaxMillis());
+        }
+        for (Counter counter : Counter.values()) {
+            out.printf("%-18s %9d%n", counter.metricName, counter.value.getValue());
+        }
+        out.flush();
+    }
+
+    private static void register() {
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        for (Operation operation : Operation.values()) {
+            try {
+                ObjectName name = new ObjectName(DOMAIN + ":type=Metrics,operation=" + operation.metricName);
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(new StandardMBean(operation.timer, TimerMXBean.class, true), name);
+                }
+            } catch (JMException e) {
+                System.out.println("Не удалось зарегистрировать метрику " + operation.metricName + ": " + e.getMessage());
+            }
+        }
+        for (Counter counter : Counter.values()) {
+            try {
+                ObjectName name = new ObjectName(DOMAIN + ":type=Counters,counter=" + counter.metricName);
+                if (!server.isRegistered(name)) {
+                    server.registerMBean(new StandardMBean(counter.value, CounterMXBean.class, true), name);
+                }
+            } catch (JMException e) {
+                System.out.println("Не удалось зарегистрировать метрику " + counter.metricName + ": " + e.getMessage());
+            }
+        }
+    }
+
+    private static void scheduleDump(long periodSeconds) {
+        ScheduledExecutorService executor = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "tracker-metrics");
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.scheduleAtFixedRate(TrackerMetrics::dumpToFile, periodSeconds, periodSeconds, TimeUnit.SECONDS);
+    }
+
+    private static void dumpToFile() {
+        StringWriter text = new StringWriter();
+        dump(new PrintWriter(text));
+        Path file = AppSettings.dataFile(DUMP_FILE);
+        Path tmp = file.resolveSibling(file.getFileName() + ".tmp");
+        try {
+            Files.writeString(tmp, text.toString(), StandardCharsets.UTF_8);
+            Files.move(tmp, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            System.out.println("Не удалось записать метрики: " + e.getMessage());
+        }
+    }
+
+    static int bucket(long nanos) {
+        if (nanos < SUB_BUCKETS) {
+            return (int) Math.max(0, nanos);
+        }
+        int exponent = 63 - Long.numberOfLeadingZeros(nanos);
+        int mantissa = (int) (nanos >>> (exponent - SUB_BUCKET_BITS)) & (SUB_BUCKETS - 1);
+        return (exponent - SUB_BUCKET_BITS + 1) * SUB_BUCKETS + mantissa;
+    }
+
+    static long bucketUpperBound(int bucket) {
+        if (bucket < SUB_BUCKETS) {
+            return bucket;
+        }
+        int exponent = bucket / SUB_BUCKETS + SUB_BUCKET_BITS - 1;
+        long lower = (long) (SUB_BUCKETS + bucket % SUB_BUCKETS) << (exponent - SUB_BUCKET_BITS);
+        return lower + (1L << (exponent - SUB_BUCKET_BITS)) - 1;
+    }
+
+    private static class CounterValue implements CounterMXBean {
+        private final LongAdder adder = new LongAdder();
+        private final List<LongAdder> sources = new CopyOnWriteArrayList<>();
+
+        @Override
+        public long getValue() {
+            long value = adder.sum();
+            for (LongAdder source : sources) {
+                value += source.sum();
+            }
+            return value;
+        }
+
+        @Override
+        public void reset() {
+            adder.reset();
+            sources.forEach(LongAdder::reset);
+        }
+    }
+
+    private static class Timer implements TimerMXBean {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder errors = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final AtomicLongArray buckets = new AtomicLongArray(BUCKETS);
+
+        void record(long nanos) {
+            count.increment();
+            totalNanos.add(nanos);
+            buckets.incrementAndGet(bucket(nanos));
+            long max = maxNanos.get();
+            while (nanos > max && !maxNanos.compareAndSet(max, nanos)) {
+                max = maxNanos.get();
+            }
+        }
+
+        @Override
+        public long getCount() {
+            return count.sum();
+        }
+
+        @Override
+        public long getErrorCount() {
+            return errors.sum();
+        }
+
+        @Override
+        public double getMeanMillis() {
+            long calls = count.sum();
+            return calls == 0 ? 0 : totalNanos.sum() / 1e6 / calls;
+        }
+
+        @Override
+        public double getMaxMillis() {
+            return maxNanos.get() / 1e6;
+        }
+
+        @Override
+        public double getP50Millis() {
+            return percentile(0.50);
+        }
+
+        @Override
+        public double getP90Millis() {
+            return percentile(0.90);
+        }
+
+        @Override
+        public double getP99Millis() {
+            return percentile(0.99);
+        }
+
+        @Override
+        public void reset() {
+            count.reset();
+            errors.reset();
+            totalNanos.reset();
+            maxNanos.set(0);
+            for (int i = 0; i < BUCKETS; i++) {
+                buckets.set(i, 0);
+            }
+        }
+
+        private double percentile(double fraction) {
+            long[] snapshot = new long[BUCKETS];
+            long total = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                snapshot[i] = buckets.get(i);
+                total += snapshot[i];
+            }
+            if (total == 0) {
+                return 0;
+            }
+
+            long rank = (long) Math.ceil(fraction * total);
+            long seen = 0;
+            for (int i = 0; i < BUCKETS; i++) {
+                seen += snapshot[i];
+                if (seen >= rank) {
+                    return Math.min(bucketUpperBound(i), maxNanos.get()) / 1e6;
+                }
+            }
+            return maxNanos.get() / 1e6;
+        }
+    }
+}
@@ -0,0 +1,145 @@
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+public class TrackerService implements Closeable {
+    private static final int MINUTES_PER_DAY = 24 * 60;
+    private static final Pattern USER_NAME = Pattern.compile("[A-Za-z0-9_-]{1,64}");
+    private static final String HISTORY_FILE = "history.dat";
+    private static final String HISTORY_ACTIONS_FILE = "history_actions.txt";
+    private static final String HISTORY_JOURNAL_FILE = "history.journal";
+
+    private final Path root;
+    private final int minutesPerSlot;
+    private final int slotsPerDay;
+    private final HistoryJournal.SyncPolicy syncPolicy;
+    private final Map<String, HistoryStore> users = new ConcurrentHashMap<>();
+    private volatile boolean closed;
+
+    public TrackerService(Path root, AppSettings settings) {
+        this.root = root;
+        this.minutesPerSlot = settings.getMinutesPerSlot();
+        this.slotsPerDay = MINUTES_PER_DAY / minutesPerSlot;
+        this.syncPolicy = settings.getJournalSyncPolicy();
+    }
+
+    public int getSlotCount() {
+        return slotsPerDay;
+    }
+
+    public int getMinutesPerSlot() {
+        return minutesPerSlot;
+    }
+
+    public DaySnapshot getDay(String user, LocalDate date) {
+        return store(user).getDay(date);
+    }
+
+    public DaySnapshot setSlot(String user, LocalDate date, int slot, Action action) {
+        return setRange(user, date, slot, slot, action);
+    }
+
+    public DaySnapshot setRange(String user, LocalDate date, int from, int to, Action action) {
+        validateSlotId(from);
+        validateSlotId(to);
+        HistoryStore store = store(user);
+
+        try {
+            if (from <= to) {
+                store.setRange(date, from, to, action.getIndex());
+            } else {
+                store.setRanges(List.of(new SlotChange(date, from, slotsPerDay - 1, action.getIndex()),
+                        new SlotChange(date, 0, to, action.getIndex())));
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка записи истории пользователя " + user, e);
+        }
+        return store.getDay(date);
+    }
+
+    public SlotStatistics getStatistics(String user, LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начальная дата позже конечной");
+        }
+
+        HistoryStore store = store(user);
+        SlotStatistics statistics = new SlotStatistics(slotsPerDay, minutesPerSlot);
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            store.getDay(date).accept(statistics);
+        }
+        return statistics.finish();
+    }
+
+    public long getTotalMinutes(String user, Action action, LocalDate from, LocalDate to) {
+        return store(user).getTotalSlots(action.getIndex(), from, to) * minutesPerSlot;
+    }
+
+    public Action createAction(String displayName) {
+        Action action = Action.getOrCreateCustomAction(displayName);
+        Action.saveCustomActions();
+        return action;
+    }
+
+    public void flush() throws IOException {
+        for (HistoryStore store : users.values()) {
+            store.flush();
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        closed = true;
+        IOException failure = null;
+        for (HistoryStore store : users.values()) {
+            try {
+                store.close();
+            } catch (IOException e) {
+                failure = e;
+            }
+        }
+        users.clear();
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private HistoryStore store(String user) {
+        if (closed) {
+            throw new IllegalStateException("Сервис трекера закрыт");
+        }
+
+        HistoryStore store = users.get(user);
+        if (store != null) {
+            return store;
+        }
+        if (user == null || !USER_NAME.matcher(user).matches()) {
+            throw new IllegalArgumentException("Некорректное имя пользователя: " + user);
+        }
+        return users.computeIfAbsent(user, this::openUser);
+    }
+
+    private HistoryStore openUser(String user) {
+        Path directory = root.resolve(user);
+        try {
+            Files.createDirectories(directory);
+            return HistoryStore.open(directory.resolve(HISTORY_FILE),
+                    directory.resolve(HISTORY_ACTIONS_FILE), directory.resolve(HISTORY_JOURNAL_FILE),
+                    slotsPerDay, syncPolicy);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Ошибка открытия истории пользователя " + user, e);
+        }
+    }
+
+    private void validateSlotId(int id) {
+        if (id < 0 || id >= slotsPerDay) {
+            throw new IllegalArgumentException("ID должен быть в диапазоне 0-" + (slotsPerDay - 1));
+        }
+    }
+}
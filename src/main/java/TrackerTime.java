@@ -1,222 +1,1237 @@
 import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
 import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.TextStyle;
 import java.util.*;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicReference;
 
 public class TrackerTime {
-    private static final int TOTAL_SLOTS = 48;
-    private static final int MINUTES_PER_SLOT = 30;
+    private static final int MINUTES_PER_DAY = 24 * 60;
     private static final String TRACKER_FILE = "TrackerList.txt";
     private static final String SETTINGS_FILE = "settings.dat";
+    private static final String HISTORY_FILE = "history.dat";
+    private static final String HISTORY_ACTIONS_FILE = "history_actions.txt";
+    private static final String HISTORY_JOURNAL_FILE = "history.journal";
+    private static final String LABELS_FILE = "slot_labels.dat";
+    private static final long LABELS_COMPACT_RECORDS = 1024;
+    private static final int EVENT_BATCH_SIZE = 256;
+    private static final long EVENT_LINGER_MILLIS = 200;
 
     private AppSettings settings;
-    private final Map<Integer, LocalTime> mapTime;
-    private final Map<Integer, Action> mapAction;
+    private int minutesPerSlot;
+    private int slotsPerDay;
+    private Timeline timeline;
+    private short[] dayBuffer;
+    private HistoryStore history;
+    private SlotLabels labels;
+    private final List<String> labelCodes = new ArrayList<>();
+    private long labelRecords;
+    private long labelBase;
+    private volatile LocalDate currentDate;
+    private final ExecutorService loader;
+    private TrackerFileParser trackerParser;
+    private final Map<LocalDate, DayHistory> edits = new HashMap<>();
+    private FileWatcher watcher;
+    private TrackerEvents events;
+    private final AtomicReference<CachedAnalytics> analytics = new AtomicReference<>();
+    private final Queue<String> notices = new ConcurrentLinkedQueue<>();
+    private final CompletableFuture<Void> startup;
+    private volatile boolean started;
 
     public TrackerTime() {
-        this.mapTime = new TreeMap<>();
-        this.mapAction = new TreeMap<>();
-        this.settings = loadSettings();
-        initializeTimeSlots();
-        autoLoadIfEnabled();
+        this.currentDate = LocalDate.now();
+        this.loader = VirtualThreads.newExecutor("tracker-loader");
+
+        CompletableFuture<AppSettings> settingsLoading = CompletableFuture.supplyAsync(this::loadSettings, loader);
+        CompletableFuture<Void> catalogLoading = Action.preloadCustomActions(loader);
+        CompletableFuture<HistoryStore> historyLoading = settingsLoading.thenApplyAsync(this::openHistory, loader);
+
+        this.startup = CompletableFuture.allOf(settingsLoading, historyLoading, catalogLoading)
+                .thenRunAsync(() -> {
+                    this.settings = settingsLoading.join();
+                    this.history = historyLoading.join();
+                    this.minutesPerSlot = history != null
+                            ? MINUTES_PER_DAY / history.getSlotsPerDay()
+                            : settings.getMinutesPerSlot();
+                    this.slotsPerDay = MINUTES_PER_DAY / minutesPerSlot;
+                    this.timeline = new Timeline(slotsPerDay);
+                    this.dayBuffer = new short[slotsPerDay];
+                    this.labels = loadLabels();
+                    this.events = history != null ? startEvents() : null;
+                    loadDay();
+                    if (settings.isAutoLoadEnabled()) {
+                        importTracker();
+                    }
+                }, loader);
+    }
+
+    private void awaitStartup() {
+        if (!started) {
+            startup.join();
+            started = true;
+        }
     }
 
     public AppSettings getSettings() {
+        awaitStartup();
         return settings;
     }
 
-    private void initializeTimeSlots() {
-        for (int count = 0; count < TOTAL_SLOTS; count++) {
-            int hour = count / 2;
-            int minute = (count % 2) * MINUTES_PER_SLOT;
-            mapTime.put(count, LocalTime.of(hour, minute));
+    public LocalDate getCurrentDate() {
+        return currentDate;
+    }
+
+    public String formatDate(LocalDate date) {
+        awaitStartup();
+        return date.format(DateTimeFormatter.ofPattern(settings.getDateFormat()));
+    }
+
+    public LocalDate parseDate(String text) {
+        awaitStartup();
+        return LocalDate.parse(text.trim(), DateTimeFormatter.ofPattern(settings.getDateFormat()));
+    }
+
+    public synchronized void selectDate(LocalDate date) {
+        awaitStartup();
+        short[] day = new short[slotsPerDay];
+        readDay(date, day);
+        this.currentDate = date;
+        System.arraycopy(day, 0, dayBuffer, 0, slotsPerDay);
+        timeline.load(dayBuffer);
+    }
+
+    private HistoryStore openHistory(AppSettings loadedSettings) {
+        try {
+            return HistoryStore.open(AppSettings.dataFile(HISTORY_FILE), AppSettings.dataFile(HISTORY_ACTIONS_FILE),
+                    AppSettings.dataFile(HISTORY_JOURNAL_FILE), MINUTES_PER_DAY / loadedSettings.getMinutesPerSlot(),
+                    loadedSettings.getJournalSyncPolicy());
+        } catch (IOException e) {
+            System.out.println("Ошибка открытия истории: " + e.getMessage());
+            return null;
+        }
+    }
+
+    private SlotLabels loadLabels() {
+        SlotLabels loaded = new SlotLabels(slotsPerDay);
+        Path file = AppSettings.dataFile(LABELS_FILE);
+        if (!Files.exists(file)) {
+            return loaded;
+        }
+
+        try {
+            labelRecords = BinaryCodec.readLabels(file, labelCodes, (date, fromMinute, toMinute, actionId, added) -> {
+                Action action = Action.getAction(actionId);
+                if (action == null || fromMinute < 0 || toMinute < 0
+                        || fromMinute >= MINUTES_PER_DAY || toMinute >= MINUTES_PER_DAY) {
+                    return;
+                }
+                if (added) {
+                    loaded.add(date, fromMinute / minutesPerSlot, toMinute / minutesPerSlot, action.getIndex());
+                } else {
+                    loaded.remove(date, fromMinute / minutesPerSlot, toMinute / minutesPerSlot, action.getIndex());
+                }
+            });
+        } catch (IOException e) {
+            System.out.println("Ошибка загрузки совмещённых действий: " + e.getMessage());
+        }
+        return loaded;
+    }
+
+    private void saveLabels(int from, int to, Action action, boolean added) {
+        Path file = AppSettings.dataFile(LABELS_FILE);
+        if (labelRecords - labelBase < Math.max(LABELS_COMPACT_RECORDS, labelBase) && Files.exists(file)) {
+            try {
+                BinaryCodec.appendLabel(file, currentDate, from * minutesPerSlot, to * minutesPerSlot + minutesPerSlot - 1,
+                        action.getId(), added, labelCodes);
+                labelRecords++;
+                return;
+            } catch (IOException e) {
+                System.out.println("Ошибка дозаписи совмещённых действий, файл будет перезаписан: " + e.getMessage());
+            }
+        }
+
+        try {
+            labelRecords = BinaryCodec.writeLabels(file, labels, minutesPerSlot, labelCodes);
+            labelBase = labelRecords;
+        } catch (IOException e) {
+            System.out.println("Ошибка записи совмещённых действий: " + e.getMessage());
+        }
+    }
+
+    private TrackerEvents startEvents() {
+        TrackerEvents started = new TrackerEvents();
+        started.subscribe(EVENT_BATCH_SIZE, EVENT_LINGER_MILLIS, this::persistChanges);
+        started.subscribe(EVENT_BATCH_SIZE, EVENT_LINGER_MILLIS, this::refreshAnalytics);
+        started.subscribe(EVENT_BATCH_SIZE, EVENT_LINGER_MILLIS, this::renderChanges);
+        return started;
+    }
+
+    private void publishChange(LocalDate date, int from, int to, int actionIndex) {
+        if (events != null) {
+            events.publish(new SlotChange(date, from, to, actionIndex));
+        }
+    }
+
+    private void persistChanges(List<SlotChange> changes) {
+        if (history.getSyncPolicy() == HistoryJournal.SyncPolicy.EVERY_WRITE) {
+            return;
+        }
+        synchronized (history) {
+            try {
+                history.flush();
+            } catch (IOException e) {
+                notices.add("Ошибка записи истории: " + e.getMessage() + System.lineSeparator());
+            }
+        }
+    }
+
+    private void refreshAnalytics(List<SlotChange> changes) {
+        synchronized (history) {
+            CachedAnalytics cached = analytics.get();
+            if (cached == null || cached.modifications == history.getModificationCount()) {
+                return;
+            }
+            for (SlotChange change : changes) {
+                if (!change.getDate().isBefore(cached.from) && !change.getDate().isAfter(cached.to)) {
+                    cacheAnalytics(cached.from, cached.to);
+                    return;
+                }
+            }
+        }
+    }
+
+    private void renderChanges(List<SlotChange> changes) {
+        int edits = 0;
+        for (SlotChange change : changes) {
+            edits += change.getEdits();
+        }
+        if (edits < 2) {
+            return;
+        }
+
+        StringWriter text = new StringWriter();
+        PrintWriter out = new PrintWriter(text);
+        out.println("=== Применено правок: " + edits + ", дней: " + changes.size() + " ===");
+        for (SlotChange change : changes) {
+            String action = change.getActionIndex() == SlotChange.MIXED_ACTIONS
+                    ? "разные действия"
+                    : Action.byIndex(change.getActionIndex()).getDisplayName();
+            out.printf("   %s | правок: %d | от %s до %s (включительно) | %s%n", formatDate(change.getDate()),
+                    change.getEdits(), slotTime(change.getFrom()), slotTime(change.getTo()), action);
+        }
+        out.flush();
+        notices.add(text.toString());
+    }
+
+    public void printNotices() {
+        String notice = notices.poll();
+        if (notice == null) {
+            return;
+        }
+        PrintWriter out = new PrintWriter(ReportRenderer.console());
+        for (; notice != null; notice = notices.poll()) {
+            out.print(notice);
+        }
+        out.flush();
+    }
+
+    private void loadDay() {
+        readDay(currentDate, dayBuffer);
+        timeline.load(dayBuffer);
+    }
+
+    public int getSlotCount() {
+        awaitStartup();
+        return slotsPerDay;
+    }
+
+    public int getMinutesPerSlot() {
+        awaitStartup();
+        return minutesPerSlot;
+    }
+
+    public synchronized long getTotalMinutes(Action action) {
+        awaitStartup();
+        return (long) timeline.getActionSlots(action.getIndex()) * minutesPerSlot;
+    }
+
+    public long getTotalMinutes(Action action, LocalDate from, LocalDate to) {
+        awaitStartup();
+        if (history == null) {
+            return from.isAfter(currentDate) || to.isBefore(currentDate) ? 0 : getTotalMinutes(action);
+        }
+        return history.getTotalSlots(action.getIndex(), from, to) * minutesPerSlot;
+    }
+
+    public void showTotals(LocalDate from, LocalDate to) {
+        awaitStartup();
+        System.out.printf("=== Итоги с %s по %s ===%n", formatDate(from), formatDate(to));
+        int count = 1;
+
+        for (Action action : Action.getAllActions()) {
+            long totalMinutes = getTotalMinutes(action, from, to);
+            if (totalMinutes > 0) {
+                System.out.printf("%d. %-15s | Всего: %d час. %d мин.%n",
+                        count++,
+                        action.getDisplayName(),
+                        totalMinutes / 60,
+                        totalMinutes % 60);
+            }
+        }
+    }
+
+    public synchronized int getIntervalCount(Action action) {
+        awaitStartup();
+        return timeline.getActionSegments(action.getIndex());
+    }
+
+    private synchronized DaySnapshot currentDay() {
+        timeline.copyTo(dayBuffer);
+        return new DaySnapshot(currentDate, dayBuffer, 0);
+    }
+
+    private void readDay(LocalDate date, short[] day) {
+        if (history == null) {
+            Arrays.fill(day, (short) Action.NULL.getIndex());
+            return;
+        }
+        history.readDay(date, day);
+    }
+
+    private void storeRange(int from, int to, int actionIndex) {
+        if (history == null) {
+            return;
+        }
+
+        try {
+            history.setRange(currentDate, from, to, actionIndex);
+            publishChange(currentDate, from, to, actionIndex);
+        } catch (IOException e) {
+            System.out.println("Ошибка записи истории: " + e.getMessage());
         }
     }
 
-    public void printTracker() {
+    public void checkDate(LocalDate date) {
+        awaitStartup();
+        if (history == null) {
+            throw new IllegalArgumentException("история недоступна, изменения не будут сохранены");
+        }
+        history.checkDate(date);
+    }
+
+    public synchronized boolean applyBatch(TrackerBatch batch) {
+        awaitStartup();
+        if (!batch.isValid()) {
+            throw new IllegalArgumentException("Пакет команд содержит ошибки и не может быть применён");
+        }
+        if (history == null && !batch.getAssignments().isEmpty()) {
+            System.out.println("Пакет не применён: история недоступна");
+            return false;
+        }
+
+        if (!batch.getNewActions().isEmpty()) {
+            Action.getOrCreateCustomActions(batch.getNewActions());
+        }
+
+        Map<LocalDate, short[][]> staged = new LinkedHashMap<>();
+        List<SlotChange> changes = new ArrayList<>();
+        try {
+            for (Map.Entry<LocalDate, List<TrackerBatch.Assignment>> day : batch.getAssignments().entrySet()) {
+                short[] before = new short[slotsPerDay];
+                short[] after = new short[slotsPerDay];
+                readDay(day.getKey(), before);
+                timeline.load(before);
+                for (TrackerBatch.Assignment assignment : day.getValue()) {
+                    int actionIndex = assignment.getAction().getIndex();
+                    if (assignment.getFrom() <= assignment.getTo()) {
+                        timeline.assign(assignment.getFrom(), assignment.getTo(), actionIndex);
+                    } else {
+                        timeline.assign(assignment.getFrom(), slotsPerDay - 1, actionIndex);
+                        timeline.assign(0, assignment.getTo(), actionIndex);
+                    }
+                }
+                timeline.copyTo(after);
+                diff(day.getKey(), before, after, changes);
+                staged.put(day.getKey(), new short[][] {before, after});
+            }
+
+            if (!changes.isEmpty()) {
+                history.setRanges(changes);
+                history.flush();
+            }
+        } catch (IOException | IllegalArgumentException e) {
+            loadDay();
+            System.out.println("Пакет не применён: " + e.getMessage());
+            return false;
+        }
+
+        Action.saveCustomActions();
+        changes.forEach(change -> publishChange(change.getDate(), change.getFrom(), change.getTo(),
+                change.getActionIndex()));
+        staged.forEach((date, day) -> beginEdit(date, day[0]).commit(day[1]));
+        if (batch.getFinalDate() != null) {
+            currentDate = batch.getFinalDate();
+        }
+        loadDay();
+
+        System.out.println("=== Пакет применён: команд " + batch.getCommandCount()
+                + ", изменено дней " + batch.getAssignments().size() + " ===");
+        if (batch.isSaveRequested()) {
+            saveTracker();
+        }
+        return true;
+    }
+
+    public void writeReport(ReportFormat format, LocalDate from, LocalDate to, Writer out)
+            throws IOException {
+        awaitStartup();
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начальная дата позже конечной");
+        }
+
+        long started = TrackerMetrics.start();
+        try {
+            renderReport(format, from, to, currentDay(), out);
+        } catch (IOException e) {
+            TrackerMetrics.error(TrackerMetrics.Operation.REPORT);
+            throw e;
+        } finally {
+            TrackerMetrics.stop(TrackerMetrics.Operation.REPORT, started);
+        }
+    }
+
+    private void renderReport(ReportFormat format, LocalDate from, LocalDate to, DaySnapshot current, Writer out)
+            throws IOException {
+
+        ReportRenderer renderer = ReportRenderer.create(format, out, settings, slotsPerDay, minutesPerSlot);
+        long[] slotCounts = new long[Action.count()];
+        int[] intervalCounts = new int[slotCounts.length];
+        short[] day = new short[slotsPerDay];
+        int previous = -1;
+
+        renderer.begin(from, to);
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (date.equals(current.getDate())) {
+                current.copyTo(day);
+            } else {
+                readDay(date, day);
+            }
+
+            renderer.beginDay(date);
+            int start = 0;
+            for (int slot = 1; slot <= slotsPerDay; slot++) {
+                if (slot < slotsPerDay && day[slot] == day[start]) {
+                    continue;
+                }
+
+                int action = day[start];
+                if (action >= slotCounts.length) {
+                    slotCounts = Arrays.copyOf(slotCounts, Action.count());
+                    intervalCounts = Arrays.copyOf(intervalCounts, slotCounts.length);
+                }
+                slotCounts[action] += slot - start;
+                if (start > 0 || action != previous) {
+                    intervalCounts[action]++;
+                }
+                renderer.segment(start, slot - 1, Action.byIndex(action));
+                start = slot;
+            }
+            previous = day[slotsPerDay - 1];
+            renderer.endDay();
+        }
+
+        renderer.beginStatistics();
+        for (int action = 0; action < slotCounts.length; action++) {
+            if (slotCounts[action] > 0) {
+                renderer.statistic(Action.byIndex(action), slotCounts[action] * minutesPerSlot, intervalCounts[action]);
+            }
+        }
+        renderer.end();
+    }
+
+    public void exportReport(ReportFormat format, ReportPeriod period, LocalDate anchor) {
+        LocalDate from = period.start(anchor);
+        LocalDate to = period.end(anchor);
+
+        if (format == ReportFormat.CONSOLE) {
+            try {
+                writeReport(format, from, to, ReportRenderer.console());
+            } catch (IOException e) {
+                System.out.println("Ошибка вывода отчёта: " + e.getMessage());
+            }
+            return;
+        }
+
+        File file = AppSettings.dataFile("report_" + from + "_" + to + "." + format.getExtension()).toFile();
+        try (Writer out = ReportRenderer.file(file)) {
+            writeReport(format, from, to, out);
+            System.out.println("=== Отчёт сохранён в " + file.getPath() + " ===");
+        } catch (IOException e) {
+            System.out.println("Ошибка при сохранении отчёта: " + e.getMessage());
+        }
+    }
+
+    public void exportHistory(LocalDate from, LocalDate to) {
+        awaitStartup();
+        Path file = AppSettings.dataFile("history_" + from + "_" + to + ".export");
+        DaySnapshot current = currentDay();
+        HistoryExport.DaySource source = (date, day) -> {
+            if (date.equals(current.getDate())) {
+                current.copyTo(day);
+            } else {
+                readDay(date, day);
+            }
+        };
+
+        try {
+            long started = System.nanoTime();
+            HistoryExport.write(file, from, to, slotsPerDay, source);
+            long encodeNanos = System.nanoTime() - started;
+
+            try (HistoryExport export = HistoryExport.open(file)) {
+                short[] expected = new short[slotsPerDay];
+                short[] decoded = new short[slotsPerDay];
+                long textBytes = 0;
+                long decodeNanos = 0;
+
+                for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                    started = System.nanoTime();
+                    export.readDay(date, decoded);
+                    decodeNanos += System.nanoTime() - started;
+
+                    source.readDay(date, expected);
+                    if (!Arrays.equals(expected, decoded)) {
+                        throw new IOException("проверка экспорта не пройдена для " + formatDate(date));
+                    }
+                    textBytes += trackerTextSize(decoded);
+                }
+
+                int days = export.getDayCount();
+                long exportBytes = export.getSize();
+                long fixedBytes = (long) days * slotsPerDay * Short.BYTES;
+                System.out.println("=== История экспортирована в " + file + " ===");
+                System.out.printf("Дней: %d, размер файла: %d байт, запись: %d мс%n",
+                        days, exportBytes, encodeNanos / 1_000_000);
+                System.out.printf("Текстовый формат: %d байт (сжатие в %.1f раз)%n",
+                        textBytes, (double) textBytes / exportBytes);
+                System.out.printf("Формат истории: %d байт (сжатие в %.1f раз)%n",
+                        fixedBytes, (double) fixedBytes / exportBytes);
+                System.out.printf("Декодирование по одному дню: %.0f дней/с (%.1f МБ/с слотов)%n",
+                        days * 1e9 / Math.max(1, decodeNanos), fixedBytes * 1e3 / Math.max(1, decodeNanos));
+            }
+        } catch (IOException e) {
+            System.out.println("Ошибка экспорта истории: " + e.getMessage());
+        }
+    }
+
+    private long trackerTextSize(short[] day) {
+        int separator = System.lineSeparator().length();
+        long size = 0;
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            Action action = Action.byIndex(day[slot]);
+            size += Integer.toString(slot).length() + slotTime(slot).length() + 3 + separator
+                    + action.getDisplayName().getBytes(StandardCharsets.UTF_8).length
+                    + action.getId().getBytes(StandardCharsets.UTF_8).length;
+        }
+        return size;
+    }
+
+    private void storeChanges(LocalDate date, short[] before, short[] after) throws IOException {
+        if (history == null) {
+            return;
+        }
+
+        List<SlotChange> changes = new ArrayList<>();
+        diff(date, before, after, changes);
+        for (SlotChange change : changes) {
+            history.setRange(date, change.getFrom(), change.getTo(), change.getActionIndex());
+            publishChange(date, change.getFrom(), change.getTo(), change.getActionIndex());
+        }
+    }
+
+    private void diff(LocalDate date, short[] before, short[] after, List<SlotChange> changes) {
+        int slot = 0;
+        while (slot < slotsPerDay) {
+            if (before[slot] == after[slot]) {
+                slot++;
+                continue;
+            }
+
+            int start = slot;
+            while (slot < slotsPerDay && before[slot] != after[slot] && after[slot] == after[start]) {
+                slot++;
+            }
+            changes.add(new SlotChange(date, start, slot - 1, after[start]));
+        }
+    }
+
+    public void close() {
+        awaitStartup();
+        synchronized (this) {
+            loader.shutdown();
+            if (watcher != null) {
+                try {
+                    watcher.close();
+                } catch (IOException e) {
+                    System.out.println("Ошибка остановки отслеживания файлов: " + e.getMessage());
+                }
+                watcher = null;
+            }
+        }
+        if (history == null) {
+            return;
+        }
+
+        events.close();
+        printNotices();
+        synchronized (this) {
+            try {
+                history.close();
+            } catch (IOException e) {
+                System.out.println("Ошибка закрытия истории: " + e.getMessage());
+            }
+        }
+    }
+
+    private String slotTime(int slot) {
+        int minutes = slot * minutesPerSlot;
+        return LocalTime.of(minutes / 60, minutes % 60).toString();
+    }
+
+    public synchronized void printTracker() {
+        awaitStartup();
+        PrintWriter out = new PrintWriter(ReportRenderer.console());
+        out.println("Дата: " + formatDate(currentDate));
         String header = "ID\t|\tЧасы\t|\tДействия\t|";
-        System.out.println(header);
+        out.println(header);
 
-        for (int i = 0; i < mapTime.size(); i++) {
-            String time = mapTime.get(i).toString();
-            String actionName = getActionAtSlot(i).getDisplayName();
-            System.out.println(i + "\t|\t" + time + "\t|\t" + actionName + "\t|");
+        long[] dayLabels = labels.getDay(currentDate);
+        for (int segment = 0; segment < timeline.getSegmentCount(); segment++) {
+            String actionName = Action.byIndex(timeline.getSegmentAction(segment)).getDisplayName();
+            for (int i = timeline.getSegmentStart(segment); i <= timeline.getSegmentEnd(segment); i++) {
+                out.println(i + "\t|\t" + slotTime(i) + "\t|\t" + actionName + labelNames(dayLabels, i) + "\t|");
+            }
         }
+        out.flush();
     }
 
-    private Action getActionAtSlot(int slot) {
-        return mapAction.getOrDefault(slot, Action.NULL);
+    private String labelNames(long[] dayLabels, int slot) {
+        if (dayLabels == null) {
+            return "";
+        }
+
+        StringBuilder names = new StringBuilder();
+        int wordsPerSlot = labels.getWordsPerSlot();
+        for (int word = 0; word < wordsPerSlot; word++) {
+            long mask = dayLabels[slot * wordsPerSlot + word];
+            while (mask != 0) {
+                int action = word * Long.SIZE + Long.numberOfTrailingZeros(mask);
+                names.append(" + ").append(Action.byIndex(action).getDisplayName());
+                mask &= mask - 1;
+            }
+        }
+        return names.toString();
     }
 
-    public void saveTracker() {
-        try (PrintWriter writer = new PrintWriter(new FileWriter(TRACKER_FILE))) {
+    public synchronized void saveTracker() {
+        awaitStartup();
+        Path tmp = AppSettings.dataFile(TRACKER_FILE + ".tmp");
+
+        long started = TrackerMetrics.start();
+        try {
+            if (history != null) {
+                history.flush();
+            }
+            writeTracker(tmp);
+            trackerParser().remember(tmp);
+            Files.move(tmp, AppSettings.dataFile(TRACKER_FILE), StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            System.out.println("=== Данные успешно сохранены в " + TRACKER_FILE + " ===");
+        } catch (IOException e) {
+            TrackerMetrics.error(TrackerMetrics.Operation.SAVE_TRACKER);
+            System.out.println("Ошибка при сохранении файла: " + e.getMessage());
+        } finally {
+            TrackerMetrics.stop(TrackerMetrics.Operation.SAVE_TRACKER, started);
+        }
+    }
+
+    private void writeTracker(Path file) throws IOException {
+        try (PrintWriter writer = new PrintWriter(Files.newBufferedWriter(file, StandardCharsets.UTF_8))) {
             writer.println("=== Учёт времени ===");
             writer.printf("ID%cЧасы%cДействия%cActionID%n",
                     settings.getSplitter(),
                     settings.getSplitter(),
                     settings.getSplitter());
 
-            for (int i = 0; i < mapTime.size(); i++) {
-                String time = mapTime.get(i).toString();
-                Action action = getActionAtSlot(i);
+            for (int segment = 0; segment < timeline.getSegmentCount(); segment++) {
+                Action action = Action.byIndex(timeline.getSegmentAction(segment));
 
-                writer.printf("%d%c%s%c%s%c%s%n",
-                        i, settings.getSplitter(),
-                        time, settings.getSplitter(),
-                        action.getDisplayName(), settings.getSplitter(),
-                        action.getId());
+                for (int i = timeline.getSegmentStart(segment); i <= timeline.getSegmentEnd(segment); i++) {
+                    writer.printf("%d%c%s%c%s%c%s%n",
+                            i, settings.getSplitter(),
+                            slotTime(i), settings.getSplitter(),
+                            action.getDisplayName(), settings.getSplitter(),
+                            action.getId());
+                }
             }
 
-            System.out.println("=== Данные успешно сохранены в " + TRACKER_FILE + " ===");
-        } catch (IOException e) {
-            System.out.println("Ошибка при сохранении файла: " + e.getMessage());
+            if (writer.checkError()) {
+                throw new IOException("не удалось записать " + file);
+            }
         }
     }
 
-    public void loadTracker() {
-        File file = new File(TRACKER_FILE);
+    public synchronized void loadTracker() {
+        awaitStartup();
+        importTracker();
+    }
+
+    private void importTracker() {
+        File file = AppSettings.dataFile(TRACKER_FILE).toFile();
         if (!file.exists()) {
             System.out.println("Файл " + TRACKER_FILE + " не найден.");
             return;
         }
 
-        try (BufferedReader br = new BufferedReader(new FileReader(file))) {
-            br.readLine();
-            br.readLine();
+        TrackerFileParser parser = trackerParser();
 
-            String line;
-            int loadedCount = 0;
+        long started = TrackerMetrics.start();
+        DayHistory dayEdits = beginEdit();
+        try {
+            int loadedCount = parser.parse(file.toPath(),
+                    (id, action) -> assign(id, id, action.getIndex()));
 
-            while ((line = br.readLine()) != null) {
-                String[] parts = line.split(String.valueOf(settings.getSplitter()));
+            System.out.println("=== Загружено " + loadedCount + " записей из " + TRACKER_FILE + " ===");
+            if (parser.getMalformedCount() > 0) {
+                System.out.println("Пропущено некорректных строк: " + parser.getMalformedCount()
+                        + " (первая - строка " + parser.getFirstMalformedLine() + ")");
+            }
+        } catch (IOException e) {
+            TrackerMetrics.error(TrackerMetrics.Operation.LOAD_TRACKER);
+            System.out.println("Ошибка при загрузке файла: " + e.getMessage());
+        } finally {
+            endEdit(dayEdits);
+            TrackerMetrics.stop(TrackerMetrics.Operation.LOAD_TRACKER, started);
+        }
+    }
 
-                if (parts.length >= 4) {
-                    try {
-                        int id = Integer.parseInt(parts[0].trim());
-                        String actionId = parts[3].trim();
+    private TrackerFileParser trackerParser() {
+        if (trackerParser == null || trackerParser.getSplitter() != settings.getSplitter()) {
+            trackerParser = new TrackerFileParser(settings.getSplitter(), slotsPerDay);
+        }
+        return trackerParser;
+    }
 
-                        if (id >= 0 && id < TOTAL_SLOTS) {
-                            Action action = Action.getAction(actionId);
-                            if (action != null) {
-                                mapAction.put(id, action);
-                                loadedCount++;
-                            }
-                        }
-                    } catch (NumberFormatException ignored) {
-                    }
-                }
+    public void startWatching() {
+        startup.thenRun(this::watch);
+    }
+
+    private synchronized void watch() {
+        if (watcher != null || loader.isShutdown()) {
+            return;
+        }
+
+        try {
+            watcher = new FileWatcher(AppSettings.dataFile(TRACKER_FILE).toAbsolutePath().getParent());
+            watcher.watch(AppSettings.dataFile(TRACKER_FILE), this::reloadTrackerChanges);
+            watcher.watch(Action.catalogFile(), this::reloadCustomActions);
+            watcher.start();
+        } catch (IOException e) {
+            watcher = null;
+            notices.add("Не удалось включить отслеживание файлов: " + e.getMessage() + System.lineSeparator());
+        }
+    }
+
+    private void reloadCustomActions() {
+        int added = Action.reloadCustomActions();
+        if (added > 0) {
+            if (history != null) {
+                history.invalidateCache();
             }
+            analytics.set(null);
+            notices.add("=== Добавлено пользовательских действий из файла: " + added + " ===" + System.lineSeparator());
+            reloadTrackerChanges();
+        }
+    }
 
-            System.out.println("=== Загружено " + loadedCount + " записей из " + TRACKER_FILE + " ===");
+    public synchronized void reloadTrackerChanges() {
+        awaitStartup();
+        File file = AppSettings.dataFile(TRACKER_FILE).toFile();
+        if (!file.exists()) {
+            return;
+        }
+
+        int[] changed = new int[1];
+        DayHistory dayEdits = beginEdit();
+        try {
+            trackerParser().parseChanges(file.toPath(), (id, action) -> {
+                if (timeline.get(id) != action.getIndex()) {
+                    assign(id, id, action.getIndex());
+                    changed[0]++;
+                }
+            });
         } catch (IOException e) {
-            System.out.println("Ошибка при загрузке файла: " + e.getMessage());
+            notices.add("Ошибка при чтении изменений " + TRACKER_FILE + ": " + e.getMessage() + System.lineSeparator());
+            return;
+        } finally {
+            endEdit(dayEdits);
+        }
+
+        if (changed[0] > 0) {
+            notices.add("=== Применено изменений из " + TRACKER_FILE + ": " + changed[0] + " ===" + System.lineSeparator());
         }
     }
 
-    public void setMapAction(int id, Action typeAction) {
+    public synchronized void setMapAction(int id, Action typeAction) {
+        awaitStartup();
         validateSlotId(id);
-        mapAction.put(id, typeAction);
+        DayHistory dayEdits = beginEdit();
+        assign(id, id, typeAction.getIndex());
+        endEdit(dayEdits);
     }
 
-    public void setMapAction(Action typeAction, int startTime, int endTime) {
+    public synchronized void setMapAction(Action typeAction, int startTime, int endTime) {
+        awaitStartup();
         validateSlotId(startTime);
         validateSlotId(endTime);
 
+        DayHistory dayEdits = beginEdit();
         if (startTime <= endTime) {
-            for (int i = startTime; i <= endTime; i++) {
-                mapAction.put(i, typeAction);
-            }
+            assign(startTime, endTime, typeAction.getIndex());
         } else {
-            for (int i = startTime; i < TOTAL_SLOTS; i++) {
-                mapAction.put(i, typeAction);
+            assign(startTime, slotsPerDay - 1, typeAction.getIndex());
+            assign(0, endTime, typeAction.getIndex());
+        }
+        endEdit(dayEdits);
+    }
+
+    public synchronized boolean addLabel(Action action, int from, int to) {
+        awaitStartup();
+        validateSlotId(from);
+        validateSlotId(to);
+
+        boolean changed = labels.add(currentDate, from, to, action.getIndex());
+        if (changed) {
+            saveLabels(from, to, action, true);
+        }
+        return changed;
+    }
+
+    public synchronized boolean removeLabel(Action action, int from, int to) {
+        awaitStartup();
+        validateSlotId(from);
+        validateSlotId(to);
+
+        boolean changed = labels.remove(currentDate, from, to, action.getIndex());
+        if (changed) {
+            saveLabels(from, to, action, false);
+        }
+        return changed;
+    }
+
+    public synchronized long getOverlapMinutes(Action first, Action second, LocalDate from, LocalDate to) {
+        awaitStartup();
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начальная дата позже конечной");
+        }
+        return labelStatistics(from, to).getOverlapMinutes(first.getIndex(), second.getIndex());
+    }
+
+    private LabelStatistics labelStatistics(LocalDate from, LocalDate to) {
+        int days = (int) (to.toEpochDay() - from.toEpochDay() + 1);
+        LabelStatistics statistics = new LabelStatistics(slotsPerDay, minutesPerSlot, days);
+        short[] day = new short[slotsPerDay];
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (date.equals(currentDate)) {
+                timeline.copyTo(day);
+            } else {
+                readDay(date, day);
             }
-            for (int i = 0; i <= endTime; i++) {
-                mapAction.put(i, typeAction);
+            statistics.accept(day, labels.getDay(date), labels.getWordsPerSlot());
+        }
+        return statistics;
+    }
+
+    private DayHistory beginEdit() {
+        timeline.copyTo(dayBuffer);
+        return beginEdit(currentDate, dayBuffer);
+    }
+
+    private DayHistory beginEdit(LocalDate date, short[] day) {
+        DayHistory dayEdits = edits.get(date);
+        if (dayEdits == null) {
+            dayEdits = new DayHistory(new DaySnapshot(date, day, 0));
+            edits.put(date, dayEdits);
+        } else {
+            dayEdits.commit(day);
+        }
+        return dayEdits;
+    }
+
+    private void endEdit(DayHistory dayEdits) {
+        timeline.copyTo(dayBuffer);
+        dayEdits.commit(dayBuffer);
+    }
+
+    public synchronized void undoEdit() {
+        awaitStartup();
+        DayHistory dayEdits = edits.containsKey(currentDate) ? beginEdit() : null;
+        if (dayEdits == null || !dayEdits.canUndo()) {
+            System.out.println("Нет правок для отмены за " + formatDate(currentDate));
+            return;
+        }
+
+        restoreEdit(dayEdits.undo());
+        System.out.println("=== Правка отменена, текущая правка " + dayEdits.getPosition()
+                + " из " + dayEdits.getEditCount() + " ===");
+    }
+
+    public synchronized void redoEdit() {
+        awaitStartup();
+        DayHistory dayEdits = edits.containsKey(currentDate) ? beginEdit() : null;
+        if (dayEdits == null || !dayEdits.canRedo()) {
+            System.out.println("Нет отменённых правок за " + formatDate(currentDate));
+            return;
+        }
+
+        restoreEdit(dayEdits.redo());
+        System.out.println("=== Правка повторена, текущая правка " + dayEdits.getPosition()
+                + " из " + dayEdits.getEditCount() + " ===");
+    }
+
+    private void restoreEdit(DaySnapshot version) {
+        short[] target = version.copySlots();
+        timeline.copyTo(dayBuffer);
+        try {
+            storeChanges(currentDate, dayBuffer, target);
+            if (history != null) {
+                history.flush();
             }
+        } catch (IOException e) {
+            System.out.println("Ошибка записи истории: " + e.getMessage());
+        }
+        timeline.load(target);
+    }
+
+    public synchronized int getEditCount() {
+        awaitStartup();
+        DayHistory dayEdits = edits.get(currentDate);
+        return dayEdits != null ? dayEdits.getEditCount() : 0;
+    }
+
+    public synchronized void printEdit(int edit) {
+        awaitStartup();
+        DayHistory dayEdits = edits.get(currentDate);
+        if (dayEdits == null) {
+            throw new IllegalArgumentException("За " + formatDate(currentDate) + " правок не было");
         }
+
+        DaySnapshot version = dayEdits.getEdit(edit);
+        PrintWriter out = new PrintWriter(ReportRenderer.console());
+        out.println("Дата: " + formatDate(currentDate) + ", правка " + edit + " из " + dayEdits.getEditCount()
+                + (edit == dayEdits.getPosition() ? " (текущая)" : ""));
+        out.println("ID\t|\tЧасы\t|\tДействия\t|");
+        for (int slot = 0; slot < version.getSlotCount(); slot++) {
+            out.println(slot + "\t|\t" + slotTime(slot) + "\t|\t" + version.getAction(slot).getDisplayName() + "\t|");
+        }
+        out.printf("Хранится блоков: %d (без разделения было бы %d)%n",
+                dayEdits.getStoredChunks(), (dayEdits.getEditCount() + 1) * version.getChunkCount());
+        out.flush();
+    }
+
+    private void assign(int from, int to, int actionIndex) {
+        timeline.assign(from, to, actionIndex);
+        storeRange(from, to, actionIndex);
     }
 
     private void validateSlotId(int id) {
-        if (id < 0 || id >= TOTAL_SLOTS) {
-            throw new IllegalArgumentException("ID должен быть в диапазоне 0-" + (TOTAL_SLOTS - 1));
+        if (id < 0 || id >= slotsPerDay) {
+            throw new IllegalArgumentException("ID должен быть в диапазоне 0-" + (slotsPerDay - 1));
+        }
+    }
+
+    public int parseSlot(String text) {
+        awaitStartup();
+        String value = text.trim();
+        int colon = value.indexOf(':');
+
+        if (colon < 0) {
+            int id = Integer.parseInt(value);
+            validateSlotId(id);
+            return id;
+        }
+
+        LocalTime time = LocalTime.parse(value.length() == 4 ? "0" + value : value);
+        int minutes = time.getHour() * 60 + time.getMinute();
+        if (minutes % minutesPerSlot != 0) {
+            throw new IllegalArgumentException("Время должно быть кратно " + minutesPerSlot + " мин.");
         }
+        return minutes / minutesPerSlot;
     }
 
     public String getMapTime(int id) {
+        awaitStartup();
         validateSlotId(id);
-        return mapTime.get(id).toString();
+        return slotTime(id);
     }
 
-    public void showAnalise() {
-        System.out.println("=== Статистика по действиям ===");
+    public synchronized void showAnalise() {
+        awaitStartup();
+        long started = TrackerMetrics.start();
+        int actionCount = timeline.getActionCapacity();
+        int[] offsets = new int[actionCount + 1];
+        for (int action = 0; action < actionCount; action++) {
+            offsets[action + 1] = offsets[action] + timeline.getActionSegments(action);
+        }
+        int[] segments = new int[timeline.getSegmentCount()];
+        int[] next = Arrays.copyOf(offsets, actionCount);
+        for (int segment = 0; segment < segments.length; segment++) {
+            segments[next[timeline.getSegmentAction(segment)]++] = segment;
+        }
+        LabelStatistics combined = labels.hasLabels(currentDate, currentDate)
+                ? labelStatistics(currentDate, currentDate)
+                : null;
+        TrackerMetrics.stop(TrackerMetrics.Operation.STATISTICS, started);
+
+        PrintWriter out = new PrintWriter(ReportRenderer.console());
+        out.println("=== Статистика по действиям ===");
         int count = 1;
+        for (int action = 0; action < actionCount; action++) {
+            if (offsets[action] == offsets[action + 1]) {
+                continue;
+            }
 
-        for (Action action : Action.getAllActions()) {
-            List<TimeInterval> intervals = getIntervalsForAction(action);
+            printTotal(out, count++, action, (long) timeline.getActionSlots(action) * minutesPerSlot);
+            for (int i = offsets[action]; i < offsets[action + 1]; i++) {
+                out.printf("   %s - %s%n",
+                        slotTime(timeline.getSegmentStart(segments[i])),
+                        slotTime(timeline.getSegmentEnd(segments[i])));
+            }
+        }
+        out.flush();
+        if (combined != null) {
+            printLabelStatistics(combined);
+        }
+    }
 
-            if (!intervals.isEmpty()) {
-                long totalMinutes = intervals.stream()
-                        .mapToLong(TimeInterval::getDurationInMinutes)
-                        .sum();
+    public void showAnalise(LocalDate from, LocalDate to) {
+        awaitStartup();
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("Начальная дата позже конечной");
+        }
 
-                System.out.printf("%d. %-15s | Всего: %d час. %d мин.%n",
-                        count++,
-                        action.getDisplayName(),
-                        totalMinutes / 60,
-                        totalMinutes % 60);
+        long started = TrackerMetrics.start();
+        SlotStatistics statistics = new SlotStatistics(slotsPerDay, minutesPerSlot);
+        DaySnapshot current = currentDay();
+        short[] day = new short[slotsPerDay];
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            if (date.equals(current.getDate())) {
+                current.accept(statistics);
+            } else {
+                readDay(date, day);
+                statistics.accept(day);
+            }
+        }
+        statistics.finish();
+        LabelStatistics combined;
+        synchronized (this) {
+            combined = labels.hasLabels(from, to) ? labelStatistics(from, to) : null;
+        }
+        TrackerMetrics.stop(TrackerMetrics.Operation.STATISTICS, started);
+        printStatistics(statistics);
+        if (combined != null) {
+            printLabelStatistics(combined);
+        }
+    }
+
+    public HistoryAnalytics analyze(LocalDate from, LocalDate to) {
+        awaitStartup();
+        if (history != null) {
+            CachedAnalytics cached = analytics.get();
+            if (cached != null && cached.matches(from, to) && cached.modifications == history.getModificationCount()) {
+                return cached.analytics;
+            }
+            return cacheAnalytics(from, to).analytics;
+        }
 
-                intervals.forEach(interval ->
-                        System.out.printf("   %s - %s%n",
-                                interval.getStartTime(),
-                                interval.getEndTime()));
+        DaySnapshot current = currentDay();
+        return computeAnalytics(from, to, (start, count, days) -> {
+            Arrays.fill(days, 0, count * slotsPerDay, (short) Action.NULL.getIndex());
+            long offset = current.getDate().toEpochDay() - start.toEpochDay();
+            if (offset >= 0 && offset < count) {
+                short[] slots = current.copySlots();
+                System.arraycopy(slots, 0, days, (int) offset * slotsPerDay, slotsPerDay);
             }
+        });
+    }
+
+    private CachedAnalytics cacheAnalytics(LocalDate from, LocalDate to) {
+        long modifications = history.getModificationCount();
+        CachedAnalytics computed = new CachedAnalytics(from, to, modifications,
+                computeAnalytics(from, to, history::readDays));
+        analytics.accumulateAndGet(computed, (current, candidate) -> current == null
+                || !current.matches(candidate.from, candidate.to)
+                || candidate.modifications >= current.modifications ? candidate : current);
+        return computed;
+    }
+
+    private HistoryAnalytics computeAnalytics(LocalDate from, LocalDate to, HistoryAnalytics.DaySource source) {
+        long started = TrackerMetrics.start();
+        try {
+            return HistoryAnalytics.compute(from, to, slotsPerDay, minutesPerSlot, source, ForkJoinPool.commonPool());
+        } finally {
+            TrackerMetrics.stop(TrackerMetrics.Operation.ANALYTICS, started);
         }
     }
 
-    private List<TimeInterval> getIntervalsForAction(Action action) {
-        List<TimeInterval> intervals = new ArrayList<>();
-        boolean inInterval = false;
-        int intervalStart = -1;
+    public void showAnalytics(LocalDate from, LocalDate to) {
+        long started = System.nanoTime();
+        HistoryAnalytics analytics = analyze(from, to);
+        long elapsed = (System.nanoTime() - started) / 1_000_000;
 
-        for (int i = 0; i < TOTAL_SLOTS; i++) {
-            Action current = getActionAtSlot(i);
+        PrintWriter out = new PrintWriter(ReportRenderer.console());
+        out.printf("=== Аналитика с %s по %s: дней %d, %d мс, потоков %d ===%n",
+                formatDate(from), formatDate(to), analytics.getDayCount(), elapsed,
+                ForkJoinPool.commonPool().getParallelism());
 
-            if (current.equals(action)) {
-                if (!inInterval) {
-                    intervalStart = i;
-                    inInterval = true;
+        out.println("--- Время суток: самое частое действие ---");
+        for (int slot = 0; slot < slotsPerDay; slot++) {
+            int best = Action.NULL.getIndex();
+            for (int action = 0; action < analytics.getActionCount(); action++) {
+                if (analytics.getSlotDays(action, slot) > analytics.getSlotDays(best, slot)) {
+                    best = action;
                 }
-            } else {
-                if (inInterval) {
-                    intervals.add(new TimeInterval(
-                            mapTime.get(intervalStart),
-                            mapTime.get(i - 1)
-                    ));
-                    inInterval = false;
+            }
+            out.printf("   %s - %s | %-15s %3d%%%n", slotTime(slot), slotTime((slot + 1) % slotsPerDay),
+                    Action.byIndex(best).getDisplayName(),
+                    analytics.getSlotDays(best, slot) * 100L / analytics.getDayCount());
+        }
+
+        out.printf("--- Среднее по дням недели, мин. ---%n%-15s |", "Действие");
+        for (DayOfWeek weekday : DayOfWeek.values()) {
+            out.printf(" %5s", weekday.getDisplayName(TextStyle.SHORT, Locale.forLanguageTag("ru")));
+        }
+        out.println();
+        for (int action = 0; action < analytics.getActionCount(); action++) {
+            if (analytics.getTotalMinutes(action) == 0) {
+                continue;
+            }
+            out.printf("%-15s |", Action.byIndex(action).getDisplayName());
+            for (DayOfWeek weekday : DayOfWeek.values()) {
+                out.printf(" %5.0f", analytics.getWeekdayAverageMinutes(action, weekday));
+            }
+            out.println();
+        }
+
+        out.println("--- Серии дней подряд ---");
+        for (int action = 0; action < analytics.getActionCount(); action++) {
+            if (analytics.getTotalMinutes(action) > 0) {
+                out.printf("%-15s | Самая длинная: %d | Текущая: %d%n", Action.byIndex(action).getDisplayName(),
+                        analytics.getLongestStreak(action), analytics.getCurrentStreak(action));
+            }
+        }
+        out.flush();
+    }
+
+    private void printStatistics(SlotStatistics statistics) {
+        PrintWriter out = new PrintWriter(ReportRenderer.console());
+        out.println("=== Статистика по действиям ===");
+        int count = 1;
+
+        for (int action = 0; action < statistics.getActionCount(); action++) {
+            int intervalCount = statistics.getIntervalCount(action);
+            if (intervalCount == 0) {
+                continue;
+            }
+
+            printTotal(out, count++, action, statistics.getTotalMinutes(action));
+            printIntervals(out, statistics, action);
+        }
+        out.flush();
+    }
+
+    private void printTotal(PrintWriter out, int count, int action, long totalMinutes) {
+        out.printf("%d. %-15s | Всего: %d час. %d мин.%n",
+                count,
+                Action.byIndex(action).getDisplayName(),
+                totalMinutes / 60,
+                totalMinutes % 60);
+    }
+
+    private void printLabelStatistics(LabelStatistics statistics) {
+        PrintWriter out = new PrintWriter(ReportRenderer.console());
+        out.println("=== Совмещённые действия ===");
+        int count = 1;
+
+        for (int action = 0; action < statistics.getActionCount(); action++) {
+            long totalMinutes = statistics.getTotalMinutes(action);
+            if (totalMinutes == 0) {
+                continue;
+            }
+            out.printf("%d. %-15s | Всего с совмещениями: %d час. %d мин. | Интервалов: %d%n",
+                    count++,
+                    Action.byIndex(action).getDisplayName(),
+                    totalMinutes / 60,
+                    totalMinutes % 60,
+                    statistics.getIntervalCount(action));
+        }
+
+        out.println("--- Пересечения ---");
+        for (int first = 0; first < statistics.getActionCount(); first++) {
+            for (int second = first + 1; second < statistics.getActionCount(); second++) {
+                long overlapMinutes = statistics.getOverlapMinutes(first, second);
+                if (overlapMinutes > 0) {
+                    long unionMinutes = statistics.getUnionMinutes(first, second);
+                    out.printf("   %s + %s: %d час. %d мин. (хотя бы одно из двух: %d час. %d мин.)%n",
+                            Action.byIndex(first).getDisplayName(),
+                            Action.byIndex(second).getDisplayName(),
+                            overlapMinutes / 60,
+                            overlapMinutes % 60,
+                            unionMinutes / 60,
+                            unionMinutes % 60);
                 }
             }
         }
+        out.flush();
+    }
 
-        if (inInterval) {
-            intervals.add(new TimeInterval(
-                    mapTime.get(intervalStart),
-                    mapTime.get(TOTAL_SLOTS - 1)
-            ));
+    private void printIntervals(PrintWriter out, SlotStatistics statistics, int action) {
+        for (int i = 0; i < statistics.getIntervalCount(action); i++) {
+            out.printf("   %s - %s%n",
+                    positionTime(statistics.getIntervalStart(action, i)),
+                    positionTime(statistics.getIntervalEnd(action, i)));
         }
+    }
 
-        return intervals;
+    private String positionTime(int position) {
+        int day = position / slotsPerDay;
+        String time = slotTime(position % slotsPerDay);
+        return day == 0 ? time : time + " (+" + day + " дн.)";
     }
 
     private AppSettings loadSettings() {
-        File settingsFile = new File(SETTINGS_FILE);
+        Path settingsFile = AppSettings.dataFile(SETTINGS_FILE);
 
-        if (settingsFile.exists()) {
-            try (ObjectInputStream ois = new ObjectInputStream(new FileInputStream(settingsFile))) {
-                AppSettings loadedSettings = (AppSettings) ois.readObject();
+        if (Files.exists(settingsFile)) {
+            long started = TrackerMetrics.start();
+            try {
+                AppSettings loadedSettings = BinaryCodec.readSettings(settingsFile);
                 System.out.println("Настройки успешно загружены");
                 return loadedSettings;
-            } catch (IOException | ClassNotFoundException e) {
+            } catch (IOException e) {
+                TrackerMetrics.error(TrackerMetrics.Operation.LOAD_SETTINGS);
                 System.out.println("Ошибка загрузки настроек. Загружены настройки по умолчанию");
+            } finally {
+                TrackerMetrics.stop(TrackerMetrics.Operation.LOAD_SETTINGS, started);
             }
         } else {
             System.out.println("Файл настроек не найден. Создан новый файл настроек по умолчанию");
@@ -226,6 +1241,7 @@ public class TrackerTime {
     }
 
     public void showSettingsMenu() {
+        awaitStartup();
         Scanner scr = new Scanner(System.in);
 
         while (true) {
@@ -240,6 +1256,8 @@ public class TrackerTime {
             System.out.println("6. Изменить формат даты");
             System.out.println("7. Сохранить настройки");
             System.out.println("8. Сбросить к настройкам по умолчанию");
+            System.out.println("9. Режим записи журнала: " + settings.getJournalSyncPolicy());
+            System.out.println("10. Длительность слота: " + settings.getMinutesPerSlot() + " мин.");
             System.out.println("0. Выйти в главное меню");
             System.out.print("\nВыберите действие: ");
 
@@ -251,6 +1269,8 @@ public class TrackerTime {
                 case "6" -> changeDateFormat(scr);
                 case "7" -> saveSettings();
                 case "8" -> resetToDefaultSettings();
+                case "9" -> changeJournalSyncPolicy(scr);
+                case "10" -> changeMinutesPerSlot(scr);
                 case "0" -> {
                     return;
                 }
@@ -272,6 +1292,7 @@ public class TrackerTime {
     }
 
     public void addCustomAction(Scanner scr) {
+        awaitStartup();
         System.out.print("Введите название нового действия: ");
         String actionName = scr.nextLine();
 
@@ -284,6 +1305,40 @@ public class TrackerTime {
         }
     }
 
+    private void changeJournalSyncPolicy(Scanner scr) {
+        HistoryJournal.SyncPolicy[] policies = HistoryJournal.SyncPolicy.values();
+        System.out.println("Режимы записи журнала истории:");
+        for (int i = 0; i < policies.length; i++) {
+            System.out.println((i + 1) + ". " + policies[i]);
+        }
+        System.out.print("Выберите режим: ");
+
+        try {
+            HistoryJournal.SyncPolicy policy = policies[Integer.parseInt(scr.nextLine().trim()) - 1];
+            settings.setJournalSyncPolicy(policy);
+            if (history != null) {
+                history.setSyncPolicy(policy);
+            }
+            System.out.println("Режим записи журнала изменен на: " + policy);
+        } catch (NumberFormatException | ArrayIndexOutOfBoundsException e) {
+            System.out.println("Неверный выбор. Режим не изменен.");
+        } catch (IOException e) {
+            System.out.println("Ошибка записи журнала: " + e.getMessage());
+        }
+    }
+
+    private void changeMinutesPerSlot(Scanner scr) {
+        System.out.print("Укажите длительность слота в минутах (30, 15, 10, 5, 1): ");
+
+        try {
+            settings.setMinutesPerSlot(Integer.parseInt(scr.nextLine().trim()));
+            System.out.println("Длительность слота изменена на " + settings.getMinutesPerSlot()
+                    + " мин. Сохраните настройки: история будет пересчитана при следующем запуске");
+        } catch (IllegalArgumentException e) {
+            System.out.println("Ошибка: " + e.getMessage());
+        }
+    }
+
     private void toggleAutoLoad() {
         boolean currentFlag = settings.isAutoLoadEnabled();
         settings.setAutoLoadEnabled(!currentFlag);
@@ -316,16 +1371,16 @@ public class TrackerTime {
         }
     }
 
-    public void autoLoadIfEnabled() {
+    public synchronized void autoLoadIfEnabled() {
+        awaitStartup();
         if (settings.isAutoLoadEnabled()) {
-            loadTracker();
+            importTracker();
         }
     }
 
     private void saveSettings() {
-        try (ObjectOutputStream oos = new ObjectOutputStream(
-                new FileOutputStream(SETTINGS_FILE))) {
-            oos.writeObject(settings);
+        try {
+            BinaryCodec.writeSettings(AppSettings.dataFile(SETTINGS_FILE), settings);
             System.out.println("Настройки успешно сохранены");
         } catch (IOException e) {
             System.out.println("Ошибка сохранения настроек: " + e.getMessage());
@@ -335,29 +1390,31 @@ public class TrackerTime {
     private void resetToDefaultSettings() {
         this.settings = new AppSettings();
         saveSettings();
+        if (history != null) {
+            try {
+                history.setSyncPolicy(settings.getJournalSyncPolicy());
+            } catch (IOException e) {
+                System.out.println("Ошибка записи журнала: " + e.getMessage());
+            }
+        }
         System.out.println("Настройки сброшены к значениям по умолчанию");
     }
 
-    private static class TimeInterval {
-        private final LocalTime start;
-        private final LocalTime end;
-
-        TimeInterval(LocalTime start, LocalTime end) {
-            this.start = start;
-            this.end = end;
-        }
-
-        LocalTime getStartTime() {
-            return start;
-        }
+    private static final class CachedAnalytics {
+        private final LocalDate from;
+        private final LocalDate to;
+        private final long modifications;
+        private final HistoryAnalytics analytics;
 
-        LocalTime getEndTime() {
-            return end;
+        CachedAnalytics(LocalDate from, LocalDate to, long modifications, HistoryAnalytics analytics) {
+            this.from = from;
+            this.to = to;
+            this.modifications = modifications;
+            this.analytics = analytics;
         }
 
-        long getDurationInMinutes() {
-            return (end.getHour() * 60L + end.getMinute()) -
-                    (start.getHour() * 60L + start.getMinute()) + MINUTES_PER_SLOT;
+        boolean matches(LocalDate from, LocalDate to) {
+            return this.from.equals(from) && this.to.equals(to);
         }
     }
-}
\ No newline at end of file
+}